@@ -0,0 +1,63 @@
+package com.comcast.artemis.benchmark;
+
+import com.comcast.artemis.cassandra.data.Result;
+import com.comcast.artemis.exception.ResultAccessException;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The handoff of a mapped result from the driver callback that sets it to the caller of getMappedResult.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultBenchmark {
+    private static final Object MAPPED = new Object();
+    private ExecutorService callbackExecutor;
+
+    @Setup
+    public void setUp() {
+        callbackExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("benchmark-callback-%d").build());
+    }
+
+    @TearDown
+    public void tearDown() {
+        callbackExecutor.shutdownNow();
+    }
+
+    /**
+     * The result is set before it is read, as when a query was answered before the caller asks for it.
+     */
+    @Benchmark
+    public Object setThenGet() throws ResultAccessException {
+        Result<Object> result = new Result<Object>();
+
+        result.setMappedResult(MAPPED);
+
+        return result.getMappedResult();
+    }
+
+    /**
+     * The result is set by another thread while the caller waits for it.
+     */
+    @Benchmark
+    public Object handoff() throws ResultAccessException {
+        final Result<Object> result = new Result<Object>();
+
+        callbackExecutor.execute(new Runnable() {
+            public void run() {
+                result.setMappedResult(MAPPED);
+            }
+        });
+
+        return result.getMappedResult();
+    }
+}
@@ -0,0 +1,39 @@
+package com.comcast.artemis.benchmark;
+
+import net.disbelieve.artemis.security.encryption.Decryptor;
+import net.disbelieve.artemis.security.encryption.Encryptor;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The build and parse of the encrypted OAuth tokens, with the test key of aes-keystore.jck.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBenchmark {
+    private static final String PLAINTEXT = "{\"clientId\":\"artemis-benchmark\",\"scope\":\"read write\"," +
+            "\"issued\":1436400000000,\"expires\":1436403600000}";
+    private final Encryptor encryptor = new Encryptor();
+    private final Decryptor decryptor = new Decryptor();
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        token = encryptor.encrypt(PLAINTEXT);
+    }
+
+    @Benchmark
+    public String buildToken() throws Exception {
+        return encryptor.encrypt(PLAINTEXT);
+    }
+
+    @Benchmark
+    public String parseToken() throws Exception {
+        return decryptor.decrypt(token);
+    }
+}
@@ -0,0 +1,39 @@
+package com.comcast.artemis.benchmark;
+
+import com.comcast.artemis.benchmark.data.BenchmarkModel;
+import com.comcast.artemis.benchmark.data.BenchmarkView;
+import com.comcast.artemis.cassandra.data.ModelUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The copy of a model to another representation by ModelUtils.transcribe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TranscribeBenchmark {
+    private final ModelUtils modelUtils = new ModelUtils();
+    private BenchmarkModel model;
+
+    @Setup
+    public void setUp() {
+        model = new BenchmarkModel();
+        model.setAccountId("8f14e45f-ceea-467f-a8f4-0c7cdd2bd4cd");
+        model.setDeviceId(42L);
+        model.setName("device 42");
+        model.setBalance(42000L);
+        model.setStatus(2);
+        model.setActive(true);
+        model.setToken("R7bUjLhA0ZSmOW3r6vyNfaQ8t1cKxGe2");
+    }
+
+    @Benchmark
+    public Object transcribe() {
+        return modelUtils.transcribe(model, BenchmarkView.class);
+    }
+}
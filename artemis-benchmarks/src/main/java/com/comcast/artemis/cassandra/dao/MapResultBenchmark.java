@@ -0,0 +1,100 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.benchmark.data.BenchmarkModel;
+import com.comcast.artemis.cassandra.data.ModelAccessor;
+import com.comcast.artemis.cassandra.data.ModelAccessors;
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.DriverFixtures;
+import com.datastax.driver.core.Row;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The mapping of the rows of a result to models, as CassandraDAO.mapResult does, and the decryption of the fields
+ * annotated with @Secure that follows it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapResultBenchmark {
+    private static final List<String> COLUMNS = Arrays.asList("accountid", "deviceid", "active", "balance", "name",
+            "status", "token");
+    private static final List<DataType> TYPES = Arrays.asList(DataType.text(), DataType.bigint(),
+            DataType.cboolean(), DataType.bigint(), DataType.text(), DataType.cint(), DataType.text());
+    @Param({"1", "100", "1000"})
+    public int rowCount;
+    private List<Row> rows;
+    private ModelAccessor<BenchmarkModel> modelAccessor;
+    private ProjectionMapper<BenchmarkModel> projectionMapper;
+
+    @Setup
+    public void setUp() throws ResultAccessException {
+        rows = new ArrayList<Row>(rowCount);
+
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(DriverFixtures.row("artemisBenchmark", "account", COLUMNS, TYPES, Arrays.<Object>asList(
+                    "8f14e45f-ceea-467f-a8f4-0c7cdd2bd4cd", (long) i, true, 1000L * i, "device " + i, i % 4,
+                    "R7bUjLhA0ZSmOW3r6vyNfaQ8t1cKxGe2")));
+        }
+        modelAccessor = ModelAccessors.forClass(BenchmarkModel.class);
+        projectionMapper = new ProjectionMapper<BenchmarkModel>(BenchmarkModel.class, DriverFixtures.PROTOCOL_VERSION);
+    }
+
+    @Benchmark
+    public List<BenchmarkModel> mapWithAccessor() {
+        List<BenchmarkModel> models = new ArrayList<BenchmarkModel>(rows.size());
+
+        for (Row row : rows) {
+            models.add(modelAccessor.map(row));
+        }
+        return models;
+    }
+
+    @Benchmark
+    public List<BenchmarkModel> mapWithProjectionMapper() {
+        List<BenchmarkModel> models = new ArrayList<BenchmarkModel>(rows.size());
+
+        for (Row row : rows) {
+            models.add(projectionMapper.map(row));
+        }
+        return models;
+    }
+
+    /**
+     * The decryption of the mapped rows in each DecryptionMode.
+     */
+    @State(Scope.Benchmark)
+    public static class Decryption {
+        @Param({"EAGER", "LAZY", "PARALLEL"})
+        public DecryptionMode mode;
+        private final RowDecryptor<BenchmarkModel> rowDecryptor = new RowDecryptor<BenchmarkModel>();
+
+        @Setup
+        public void setUp() {
+            rowDecryptor.setMode(mode);
+        }
+    }
+
+    /**
+     * Maps and decrypts the rows, reading every one of them so that the LAZY mode decrypts them too.
+     */
+    @Benchmark
+    public int mapAndDecrypt(Decryption decryption) throws ExecutionException, InterruptedException {
+        List<BenchmarkModel> models = decryption.rowDecryptor.decrypt(mapWithAccessor(), 500).get();
+        int hash = 0;
+
+        for (BenchmarkModel model : models) {
+            hash += model.hashCode();
+        }
+        return hash;
+    }
+}
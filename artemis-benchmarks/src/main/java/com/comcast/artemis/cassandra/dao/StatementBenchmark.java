@@ -0,0 +1,115 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.benchmark.data.BenchmarkModel;
+import com.comcast.artemis.cassandra.ConsistencyLevels;
+import com.comcast.artemis.cassandra.data.ModelAccessors;
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.DriverFixtures;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.Clause;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The statements a DAO builds before a query is sent: the where clauses of a model, the consistency level of the
+ * request and the binding of the prepared statement.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+    private static final String SELECT_PREFIX = "SELECT * FROM \"artemisBenchmark\".account WHERE ";
+    private Session session;
+    private CQLUtils generatedUtils;
+    private CQLUtils reflectiveUtils;
+    private BenchmarkModel model;
+    private List<Clause> primaryKeyClauses;
+
+    @Setup
+    public void setUp() throws ResultAccessException {
+        session = DriverFixtures.session(DriverFixtures.prepared(
+                SELECT_PREFIX + "accountId=? AND deviceId=?", "artemisBenchmark", "account",
+                Arrays.asList("accountid", "deviceid"), Arrays.asList(DataType.text(), DataType.bigint())));
+        generatedUtils = new CQLUtils(ModelAccessors.forClass(BenchmarkModel.class));
+        reflectiveUtils = new CQLUtils(BenchmarkModel.class);
+        model = new BenchmarkModel();
+        model.setAccountId("8f14e45f-ceea-467f-a8f4-0c7cdd2bd4cd");
+        model.setDeviceId(42L);
+        primaryKeyClauses = generatedUtils.buildClause(generatedUtils.getPrimaryKey(), model);
+
+        // A value rendered into the query instead of bound would measure another statement
+        BoundStatement statement = bindPreparedStatement();
+
+        for (int i = 0; i < statement.preparedStatement().getVariables().size(); i++) {
+            if (!statement.isSet(i)) {
+                throw new IllegalStateException("Variable " + i + " of " +
+                        statement.preparedStatement().getQueryString() + " is not bound");
+            }
+        }
+    }
+
+    /**
+     * Builds the where clauses of the PRIMARY KEY set in a model from its generated ModelAccessor.
+     */
+    @Benchmark
+    public List<Clause> buildClauseGenerated() throws ResultAccessException {
+        return generatedUtils.buildClause(generatedUtils.getPrimaryKey(), model);
+    }
+
+    /**
+     * Builds the where clauses of the PRIMARY KEY set in a model from the getters of its annotated fields.
+     */
+    @Benchmark
+    public List<Clause> buildClauseReflective() throws ResultAccessException {
+        return reflectiveUtils.buildClause(reflectiveUtils.getPrimaryKey(), model);
+    }
+
+    /**
+     * Binds a select by PRIMARY KEY as CassandraDAO.bindPreparedStatement does, the statement being prepared
+     * already.
+     */
+    @Benchmark
+    public BoundStatement bindPreparedStatement() throws ResultAccessException {
+        BoundStatement statement = PreparedStatementCache.bind(session, SELECT_PREFIX, primaryKeyClauses, null);
+
+        statement.setConsistencyLevel(CQLUtils.getConsistencyLevel(CQLUtils.QueryType.READ));
+        statement.setIdempotent(true);
+
+        return statement;
+    }
+
+    /**
+     * The consistency level of a request, with or without the override of CassandraConsistencyLevelFilter.
+     */
+    @State(Scope.Thread)
+    public static class Request {
+        @Param({"false", "true"})
+        public boolean overridden;
+
+        @Setup
+        public void setUp() {
+            if (overridden) {
+                ConsistencyLevels.setRequestOverrides(ConsistencyLevel.LOCAL_QUORUM, ConsistencyLevel.LOCAL_QUORUM);
+            }
+        }
+
+        @TearDown
+        public void tearDown() {
+            ConsistencyLevels.clearRequestOverrides();
+        }
+    }
+
+    @Benchmark
+    public ConsistencyLevel getConsistencyLevel(Request request) {
+        return CQLUtils.getConsistencyLevel(CQLUtils.QueryType.READ);
+    }
+}
@@ -0,0 +1,186 @@
+package com.datastax.driver.core;
+
+import com.datastax.driver.core.policies.RetryPolicy;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds the driver objects the benchmarks work on, which the driver only creates from the messages of a cluster.
+ */
+public class DriverFixtures {
+    public static final ProtocolVersion PROTOCOL_VERSION = ProtocolVersion.V3;
+
+    private DriverFixtures() {}
+
+    /**
+     * Creates a row as it would be decoded from a result.
+     *
+     * @param keyspace the keyspace of the columns
+     * @param table    the table of the columns
+     * @param names    the names of the columns
+     * @param types    the type of each column
+     * @param values   the value of each column, null for an absent value
+     * @return the row
+     */
+    public static Row row(String keyspace, String table, List<String> names, List<DataType> types,
+                          List<Object> values) {
+        List<ByteBuffer> data = new ArrayList<ByteBuffer>(values.size());
+
+        for (int i = 0; i < values.size(); i++) {
+            data.add(values.get(i) == null ? null : types.get(i).serialize(values.get(i), PROTOCOL_VERSION));
+        }
+
+        return ArrayBackedRow.fromData(definitions(keyspace, table, names, types), null, PROTOCOL_VERSION, data);
+    }
+
+    /**
+     * Creates a prepared statement as it would be returned by the cluster.
+     *
+     * @param query    the query
+     * @param keyspace the keyspace of the bind variables
+     * @param table    the table of the bind variables
+     * @param names    the names of the bind variables, in marker order
+     * @param types    the type of each bind variable
+     * @return the prepared statement
+     */
+    public static PreparedStatement prepared(String query, String keyspace, String table, List<String> names,
+                                             List<DataType> types) {
+        return new FixedPreparedStatement(query, keyspace, new PreparedId(MD5Digest.wrap(new byte[16]),
+                definitions(keyspace, table, names, types), ColumnDefinitions.EMPTY, null, PROTOCOL_VERSION));
+    }
+
+    /**
+     * Creates a session that only prepares the query of the given statement.
+     *
+     * @param preparedStatement the statement the query is prepared as
+     * @return the session
+     * @throws IllegalArgumentException from prepare if the query is not that of the statement
+     */
+    public static Session session(final PreparedStatement preparedStatement) {
+        return (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class[]{Session.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("prepare") && args[0] instanceof String) {
+                            if (!args[0].equals(preparedStatement.getQueryString())) {
+                                throw new IllegalArgumentException("Prepared " + args[0] + " instead of " +
+                                        preparedStatement.getQueryString());
+                            }
+                            return preparedStatement;
+                        }
+                        throw new UnsupportedOperationException(method.getName() + Arrays.toString(args));
+                    }
+                });
+    }
+
+    private static ColumnDefinitions definitions(String keyspace, String table, List<String> names,
+                                                 List<DataType> types) {
+        ColumnDefinitions.Definition[] definitions = new ColumnDefinitions.Definition[names.size()];
+
+        for (int i = 0; i < definitions.length; i++) {
+            definitions[i] = new ColumnDefinitions.Definition(keyspace, table, names.get(i), types.get(i));
+        }
+
+        return new ColumnDefinitions(definitions);
+    }
+
+    private static class FixedPreparedStatement implements PreparedStatement {
+        private final String query;
+        private final String keyspace;
+        private final PreparedId preparedId;
+        private ConsistencyLevel consistencyLevel;
+        private ConsistencyLevel serialConsistencyLevel;
+        private RetryPolicy retryPolicy;
+        private ByteBuffer routingKey;
+        private boolean tracing;
+
+        FixedPreparedStatement(String query, String keyspace, PreparedId preparedId) {
+            this.query = query;
+            this.keyspace = keyspace;
+            this.preparedId = preparedId;
+        }
+
+        public ColumnDefinitions getVariables() {
+            return preparedId.metadata;
+        }
+
+        public BoundStatement bind(Object... values) {
+            return new BoundStatement(this).bind(values);
+        }
+
+        public BoundStatement bind() {
+            return new BoundStatement(this);
+        }
+
+        public PreparedStatement setRoutingKey(ByteBuffer routingKey) {
+            this.routingKey = routingKey;
+            return this;
+        }
+
+        public PreparedStatement setRoutingKey(ByteBuffer... routingKeyComponents) {
+            throw new UnsupportedOperationException();
+        }
+
+        public ByteBuffer getRoutingKey() {
+            return routingKey;
+        }
+
+        public PreparedStatement setConsistencyLevel(ConsistencyLevel consistencyLevel) {
+            this.consistencyLevel = consistencyLevel;
+            return this;
+        }
+
+        public ConsistencyLevel getConsistencyLevel() {
+            return consistencyLevel;
+        }
+
+        public PreparedStatement setSerialConsistencyLevel(ConsistencyLevel serialConsistencyLevel) {
+            this.serialConsistencyLevel = serialConsistencyLevel;
+            return this;
+        }
+
+        public ConsistencyLevel getSerialConsistencyLevel() {
+            return serialConsistencyLevel;
+        }
+
+        public String getQueryString() {
+            return query;
+        }
+
+        public String getQueryKeyspace() {
+            return keyspace;
+        }
+
+        public PreparedStatement enableTracing() {
+            tracing = true;
+            return this;
+        }
+
+        public PreparedStatement disableTracing() {
+            tracing = false;
+            return this;
+        }
+
+        public boolean isTracing() {
+            return tracing;
+        }
+
+        public PreparedStatement setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        public RetryPolicy getRetryPolicy() {
+            return retryPolicy;
+        }
+
+        public PreparedId getPreparedId() {
+            return preparedId;
+        }
+    }
+}
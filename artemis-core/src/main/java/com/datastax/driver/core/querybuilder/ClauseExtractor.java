@@ -1,6 +1,7 @@
 package com.datastax.driver.core.querybuilder;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -8,6 +9,11 @@ import java.util.Set;
  * Created by kmatth207 on 7/20/15.
  */
 public class ClauseExtractor {
+    private static final Field SIMPLE_OP = getDeclaredField(Clause.SimpleClause.class, "op");
+    private static final Field COMPOUND_OP = getDeclaredField(Clause.CompoundClause.class, "op");
+    private static final Field COMPOUND_NAMES = getDeclaredField(Clause.CompoundClause.class, "names");
+    private static final Field COMPOUND_VALUES = getDeclaredField(Clause.CompoundClause.class, "values");
+
     public static Object getValues(Clause clause) {
         Object values = null;
         if(clause instanceof Clause.InClause) {
@@ -26,4 +32,78 @@ public class ClauseExtractor {
         }
         return values;
     }
+
+    /**
+     * Appends the shape of a clause (column, operator and bind markers) to a query template and collects the values
+     * to bind against it. Every value is bound rather than inlined, as Clause.appendTo does for the numbers it deems
+     * literals, so the template never changes with the values. IN clauses always render as a single "IN ?" marker
+     * bound to the list of values, so the template does not change with the number of values either.
+     * <p>
+     * Clauses holding a bind marker or a raw value are appended as they are.
+     *
+     * @param clause   the clause
+     * @param template the query template being built
+     * @param values   the values to bind, in marker order
+     */
+    public static void appendTemplate(Clause clause, StringBuilder template, List<Object> values) {
+        if(clause instanceof Clause.InClause) {
+            List<?> inValues = (List<?>) getValues(clause);
+
+            if(inValues == null || containsMarkerOrRaw(inValues)) {
+                clause.appendTo(template, values);
+            } else {
+                Utils.appendName(clause.name(), template).append(" IN ?");
+                values.add(new ArrayList<Object>(inValues));
+            }
+        } else if(clause instanceof Clause.SimpleClause && !containsMarkerOrRaw(clause.firstValue())) {
+            Utils.appendName(clause.name(), template).append(getField(SIMPLE_OP, clause)).append('?');
+            values.add(clause.firstValue());
+        } else if(clause instanceof Clause.CompoundClause && !containsMarkerOrRaw(getField(COMPOUND_VALUES, clause))) {
+            List<?> compoundValues = (List<?>) getField(COMPOUND_VALUES, clause);
+
+            template.append('(');
+            Utils.joinAndAppendNames(template, ",", (List<?>) getField(COMPOUND_NAMES, clause));
+            template.append(')').append(getField(COMPOUND_OP, clause)).append('(');
+
+            for(int i = 0; i < compoundValues.size(); i++) {
+                template.append(i == 0 ? "?" : ",?");
+                values.add(compoundValues.get(i));
+            }
+            template.append(')');
+        } else {
+            clause.appendTo(template, values);
+        }
+    }
+
+    private static boolean containsMarkerOrRaw(Object value) {
+        if(value instanceof List) {
+            for(Object element : (List<?>) value) {
+                if(containsMarkerOrRaw(element)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return value instanceof BindMarker || value instanceof Utils.FCall || value instanceof Utils.CName ||
+                value instanceof Utils.RawString;
+    }
+
+    private static Field getDeclaredField(Class<?> type, String name) {
+        try {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static Object getField(Field field, Object clause) {
+        try {
+            return field.get(clause);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 }
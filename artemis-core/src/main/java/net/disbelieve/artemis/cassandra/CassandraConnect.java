@@ -8,7 +8,9 @@ package com.comcast.artemis.cassandra;
 import com.comcast.artemis.exception.ConnectionException;
 import com.comcast.artemis.jmx.MXBeansManager;
 import com.datastax.driver.core.*;
-import com.datastax.driver.core.policies.DCAwareRoundRobinPolicy;
+import com.datastax.driver.core.policies.*;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * The type Cassandra connect.
@@ -27,6 +29,24 @@ public class CassandraConnect {
     private final Integer maxConnectionsPerHost;
     private final Integer maxSimultaneousRequestsPerConnectionThreshold;
     private final Integer poolTimeoutMillis;
+    private final Integer usedHostsPerRemoteDc;
+    private final Boolean allowRemoteDCsForLocalConsistencyLevel;
+    private final Boolean tokenAware;
+    private final Boolean latencyAware;
+    private final Double latencyAwareExclusionThreshold;
+    private final Long latencyAwareScaleMillis;
+    private final Long latencyAwareRetryPeriodSeconds;
+    private final Long latencyAwareUpdateRateMillis;
+    private final Integer latencyAwareMinimumMeasurements;
+    private final String speculativeExecution;
+    private final Long speculativeExecutionDelayMillis;
+    private final Double speculativeExecutionPercentile;
+    private final Integer speculativeExecutionMaxExecutions;
+    private final Long speculativeExecutionHighestTrackableLatencyMillis;
+    private final Long slowQueryThresholdMillis;
+    private final Double slowQuerySampleRate;
+    private final Integer slowQueryMaxPerSecond;
+    private final Boolean slowQueryLogValues;
     private static final Object CLUSTER_LOCK = new Object();
 
     public static enum PROPERTIES {
@@ -42,7 +62,27 @@ public class CassandraConnect {
         IDLE_TIMEOUT("cassandra.idleTimeout"),
         MAX_CONNECTIONS_PER_HOST("cassandra.maxConnectionsPerHost"),
         MAX_REQUESTS_PER_CONNECTION("cassandra.maxRequestsPerConnection"),
-        POOL_TIMEOUT("cassandra.poolTimeout");
+        POOL_TIMEOUT("cassandra.poolTimeout"),
+        USED_HOSTS_PER_REMOTE_DC("cassandra.usedHostsPerRemoteDc"),
+        ALLOW_REMOTE_DCS_FOR_LOCAL_CONSISTENCY_LEVEL("cassandra.allowRemoteDCsForLocalConsistencyLevel"),
+        TOKEN_AWARE("cassandra.tokenAware"),
+        LATENCY_AWARE("cassandra.latencyAware"),
+        LATENCY_AWARE_EXCLUSION_THRESHOLD("cassandra.latencyAware.exclusionThreshold"),
+        LATENCY_AWARE_SCALE("cassandra.latencyAware.scale"),
+        LATENCY_AWARE_RETRY_PERIOD("cassandra.latencyAware.retryPeriod"),
+        LATENCY_AWARE_UPDATE_RATE("cassandra.latencyAware.updateRate"),
+        LATENCY_AWARE_MINIMUM_MEASUREMENTS("cassandra.latencyAware.minimumMeasurements"),
+        SPECULATIVE_EXECUTION("cassandra.speculativeExecution"),
+        SPECULATIVE_EXECUTION_DELAY("cassandra.speculativeExecution.delay"),
+        SPECULATIVE_EXECUTION_PERCENTILE("cassandra.speculativeExecution.percentile"),
+        SPECULATIVE_EXECUTION_MAX_EXECUTIONS("cassandra.speculativeExecution.maxExecutions"),
+        SPECULATIVE_EXECUTION_HIGHEST_TRACKABLE_LATENCY("cassandra.speculativeExecution.highestTrackableLatency"),
+        PAGING_CURSOR_SECRET("cassandra.pagingCursorSecret"),
+        RESPONSE_COMPRESSION_THRESHOLD("cassandra.responseCompressionThreshold"),
+        SLOW_QUERY_THRESHOLD("cassandra.slowQuery.threshold"),
+        SLOW_QUERY_SAMPLE_RATE("cassandra.slowQuery.sampleRate"),
+        SLOW_QUERY_MAX_PER_SECOND("cassandra.slowQuery.maxPerSecond"),
+        SLOW_QUERY_LOG_VALUES("cassandra.slowQuery.logValues");
 
         private final String s;
 
@@ -67,6 +107,24 @@ public class CassandraConnect {
         this.maxConnectionsPerHost = builder.maxConnectionsPerHost;
         this.maxSimultaneousRequestsPerConnectionThreshold = builder.maxSimultaneousRequestsPerConnectionThreshold;
         this.poolTimeoutMillis = builder.poolTimeoutMillis;
+        this.usedHostsPerRemoteDc = builder.usedHostsPerRemoteDc;
+        this.allowRemoteDCsForLocalConsistencyLevel = builder.allowRemoteDCsForLocalConsistencyLevel;
+        this.tokenAware = builder.tokenAware;
+        this.latencyAware = builder.latencyAware;
+        this.latencyAwareExclusionThreshold = builder.latencyAwareExclusionThreshold;
+        this.latencyAwareScaleMillis = builder.latencyAwareScaleMillis;
+        this.latencyAwareRetryPeriodSeconds = builder.latencyAwareRetryPeriodSeconds;
+        this.latencyAwareUpdateRateMillis = builder.latencyAwareUpdateRateMillis;
+        this.latencyAwareMinimumMeasurements = builder.latencyAwareMinimumMeasurements;
+        this.speculativeExecution = builder.speculativeExecution;
+        this.speculativeExecutionDelayMillis = builder.speculativeExecutionDelayMillis;
+        this.speculativeExecutionPercentile = builder.speculativeExecutionPercentile;
+        this.speculativeExecutionMaxExecutions = builder.speculativeExecutionMaxExecutions;
+        this.speculativeExecutionHighestTrackableLatencyMillis = builder.speculativeExecutionHighestTrackableLatencyMillis;
+        this.slowQueryThresholdMillis = builder.slowQueryThresholdMillis;
+        this.slowQuerySampleRate = builder.slowQuerySampleRate;
+        this.slowQueryMaxPerSecond = builder.slowQueryMaxPerSecond;
+        this.slowQueryLogValues = builder.slowQueryLogValues;
     }
 
     /**
@@ -79,6 +137,9 @@ public class CassandraConnect {
             }
             Cluster.Builder clusterBuilder = Cluster.builder();
             PoolingOptions poolingOptions = new PoolingOptions();
+            PerHostPercentileTracker percentileTracker = null;
+            SpeculativeExecutionPolicy speculativeExecutionPolicy = null;
+            int maxExecutions = speculativeExecutionMaxExecutions == null ? 1 : speculativeExecutionMaxExecutions;
 
             if (maxConnectionsPerHost != null) {
                 poolingOptions.setMaxConnectionsPerHost(HostDistance.LOCAL, maxConnectionsPerHost);
@@ -96,9 +157,21 @@ public class CassandraConnect {
                 poolingOptions.setPoolTimeoutMillis(poolTimeoutMillis);
             }
 
-            if (localDataCenter != null) {
-                DCAwareRoundRobinPolicy dcAwareRoundRobinPolicy = new DCAwareRoundRobinPolicy(localDataCenter);
-                clusterBuilder = clusterBuilder.withLoadBalancingPolicy(dcAwareRoundRobinPolicy);
+            clusterBuilder = clusterBuilder.withLoadBalancingPolicy(buildLoadBalancingPolicy());
+
+            // Only statements marked idempotent are executed speculatively, which the DAOs do for reads
+            if ("constant".equalsIgnoreCase(speculativeExecution)) {
+                speculativeExecutionPolicy = new ConstantSpeculativeExecutionPolicy(
+                        speculativeExecutionDelayMillis == null ? 100 : speculativeExecutionDelayMillis, maxExecutions);
+            } else if ("percentile".equalsIgnoreCase(speculativeExecution)) {
+                percentileTracker = PerHostPercentileTracker.builderWithHighestTrackableLatencyMillis(
+                        speculativeExecutionHighestTrackableLatencyMillis == null ? 15000 :
+                                speculativeExecutionHighestTrackableLatencyMillis).build();
+                speculativeExecutionPolicy = new PercentileSpeculativeExecutionPolicy(percentileTracker,
+                        speculativeExecutionPercentile == null ? 99.0 : speculativeExecutionPercentile, maxExecutions);
+            }
+            if (speculativeExecutionPolicy != null) {
+                clusterBuilder.withSpeculativeExecutionPolicy(speculativeExecutionPolicy);
             }
             if (userName != null) {
                 clusterBuilder = clusterBuilder.withCredentials(userName, password);
@@ -113,12 +186,86 @@ public class CassandraConnect {
             //NOSONAR intentional assignment of static var in non-static method protected by lock.
             clusterBuilder.addContactPoints(contactPoints);
             cluster = clusterBuilder.build();
+
+            if (percentileTracker != null) {
+                cluster.register(percentileTracker);
+            }
             //NOSONAR intentional assignment of static var in non-static method protected by lock.
             session = cluster.connect();
             MXBeansManager.registerCassandraMetadata(session.getCluster());
+            MXBeansManager.registerSpeculativeExecution(session.getCluster(),
+                    speculativeExecutionPolicy == null ? "none" : speculativeExecution.toLowerCase());
+
+            if (slowQueryThresholdMillis != null) {
+                SlowQueryLog.setThresholdMillis(slowQueryThresholdMillis);
+            }
+            if (slowQuerySampleRate != null) {
+                SlowQueryLog.setSampleRate(slowQuerySampleRate);
+            }
+            if (slowQueryMaxPerSecond != null) {
+                SlowQueryLog.setMaxPerSecond(slowQueryMaxPerSecond);
+            }
+            if (slowQueryLogValues != null) {
+                SlowQueryLog.setLogValues(slowQueryLogValues);
+            }
+            MXBeansManager.registerSlowQueryLog();
         }
     }
 
+    /**
+     * Builds the load balancing policy: round robin over the hosts of the local data center, optionally excluding
+     * hosts much slower than the fastest one, with the replicas of the partition being queried tried first.
+     * <p>
+     * Hosts in remote data centers are only used when usedHostsPerRemoteDc is set, and then only for consistency
+     * levels other than LOCAL_* unless allowRemoteDCsForLocalConsistencyLevel is set. Without a local data center
+     * the driver picks the data center of the contact points and never fails over, so setting either is rejected.
+     *
+     * @return the load balancing policy
+     * @throws ConnectionException if remote data centers are enabled without a local data center
+     */
+    private LoadBalancingPolicy buildLoadBalancingPolicy() throws ConnectionException {
+        LoadBalancingPolicy policy;
+
+        if (localDataCenter == null) {
+            if ((usedHostsPerRemoteDc != null && usedHostsPerRemoteDc > 0) ||
+                    (allowRemoteDCsForLocalConsistencyLevel != null && allowRemoteDCsForLocalConsistencyLevel)) {
+                throw new ConnectionException(PROPERTIES.USED_HOSTS_PER_REMOTE_DC + " and " +
+                        PROPERTIES.ALLOW_REMOTE_DCS_FOR_LOCAL_CONSISTENCY_LEVEL + " require " +
+                        PROPERTIES.LOCAL_DATA_CENTER);
+            }
+            policy = new DCAwareRoundRobinPolicy();
+        } else {
+            policy = new DCAwareRoundRobinPolicy(localDataCenter,
+                    usedHostsPerRemoteDc == null ? 0 : usedHostsPerRemoteDc,
+                    allowRemoteDCsForLocalConsistencyLevel != null && allowRemoteDCsForLocalConsistencyLevel);
+        }
+        if (latencyAware != null && latencyAware) {
+            LatencyAwarePolicy.Builder latencyAwareBuilder = LatencyAwarePolicy.builder(policy);
+
+            if (latencyAwareExclusionThreshold != null) {
+                latencyAwareBuilder.withExclusionThreshold(latencyAwareExclusionThreshold);
+            }
+            if (latencyAwareScaleMillis != null) {
+                latencyAwareBuilder.withScale(latencyAwareScaleMillis, TimeUnit.MILLISECONDS);
+            }
+            if (latencyAwareRetryPeriodSeconds != null) {
+                latencyAwareBuilder.withRetryPeriod(latencyAwareRetryPeriodSeconds, TimeUnit.SECONDS);
+            }
+            if (latencyAwareUpdateRateMillis != null) {
+                latencyAwareBuilder.withUpdateRate(latencyAwareUpdateRateMillis, TimeUnit.MILLISECONDS);
+            }
+            if (latencyAwareMinimumMeasurements != null) {
+                latencyAwareBuilder.withMininumMeasurements(latencyAwareMinimumMeasurements);
+            }
+            policy = latencyAwareBuilder.build();
+        }
+        if (tokenAware == null || tokenAware) {
+            policy = new TokenAwarePolicy(policy);
+        }
+
+        return policy;
+    }
+
     /**
      * Close the connection to the cluster
      */
@@ -147,6 +294,24 @@ public class CassandraConnect {
         private Integer maxConnectionsPerHost;
         private Integer maxSimultaneousRequestsPerConnectionThreshold;
         private Integer poolTimeoutMillis;
+        private Integer usedHostsPerRemoteDc;
+        private Boolean allowRemoteDCsForLocalConsistencyLevel;
+        private Boolean tokenAware;
+        private Boolean latencyAware;
+        private Double latencyAwareExclusionThreshold;
+        private Long latencyAwareScaleMillis;
+        private Long latencyAwareRetryPeriodSeconds;
+        private Long latencyAwareUpdateRateMillis;
+        private Integer latencyAwareMinimumMeasurements;
+        private String speculativeExecution;
+        private Long speculativeExecutionDelayMillis;
+        private Double speculativeExecutionPercentile;
+        private Integer speculativeExecutionMaxExecutions;
+        private Long speculativeExecutionHighestTrackableLatencyMillis;
+        private Long slowQueryThresholdMillis;
+        private Double slowQuerySampleRate;
+        private Integer slowQueryMaxPerSecond;
+        private Boolean slowQueryLogValues;
 
         public ConnectionBuilder contactPoints(String contactPoint) {
             this.contactPoints = contactPoint;
@@ -163,6 +328,10 @@ public class CassandraConnect {
             return this;
         }
 
+        /**
+         * @param localDataCenter the data center queries are sent to, that of the contact points by default. It is
+         *                        required to fail over to remote data centers.
+         */
         public ConnectionBuilder localDataCenter(String localDataCenter) {
             this.localDataCenter = localDataCenter;
             return this;
@@ -203,6 +372,159 @@ public class CassandraConnect {
             return this;
         }
 
+        /**
+         * @param usedHostsPerRemoteDc the number of hosts per remote data center to fail over to, 0 by default.
+         *                             Connecting fails if it is positive and localDataCenter is not set.
+         */
+        public ConnectionBuilder usedHostsPerRemoteDc(Integer usedHostsPerRemoteDc) {
+            this.usedHostsPerRemoteDc = usedHostsPerRemoteDc;
+            return this;
+        }
+
+        /**
+         * @param allowRemoteDCsForLocalConsistencyLevel whether LOCAL_* consistency levels may fail over to remote
+         *                                               data centers, false by default. Connecting fails if it is
+         *                                               true and localDataCenter is not set.
+         */
+        public ConnectionBuilder allowRemoteDCsForLocalConsistencyLevel(Boolean allowRemoteDCsForLocalConsistencyLevel) {
+            this.allowRemoteDCsForLocalConsistencyLevel = allowRemoteDCsForLocalConsistencyLevel;
+            return this;
+        }
+
+        /**
+         * @param tokenAware whether queries are sent to a replica of their partition first, true by default
+         */
+        public ConnectionBuilder tokenAware(Boolean tokenAware) {
+            this.tokenAware = tokenAware;
+            return this;
+        }
+
+        /**
+         * @param latencyAware whether hosts much slower than the fastest one are avoided, false by default
+         */
+        public ConnectionBuilder latencyAware(Boolean latencyAware) {
+            this.latencyAware = latencyAware;
+            return this;
+        }
+
+        /**
+         * @param latencyAwareExclusionThreshold how many times slower than the fastest host a host is avoided
+         */
+        public ConnectionBuilder latencyAwareExclusionThreshold(Double latencyAwareExclusionThreshold) {
+            this.latencyAwareExclusionThreshold = latencyAwareExclusionThreshold;
+            return this;
+        }
+
+        /**
+         * @param latencyAwareScaleMillis the weight of older latencies decays by half every this many milliseconds
+         */
+        public ConnectionBuilder latencyAwareScaleMillis(Long latencyAwareScaleMillis) {
+            this.latencyAwareScaleMillis = latencyAwareScaleMillis;
+            return this;
+        }
+
+        /**
+         * @param latencyAwareRetryPeriodSeconds how long an avoided host is avoided before being tried again
+         */
+        public ConnectionBuilder latencyAwareRetryPeriodSeconds(Long latencyAwareRetryPeriodSeconds) {
+            this.latencyAwareRetryPeriodSeconds = latencyAwareRetryPeriodSeconds;
+            return this;
+        }
+
+        /**
+         * @param latencyAwareUpdateRateMillis how often the fastest host is recomputed
+         */
+        public ConnectionBuilder latencyAwareUpdateRateMillis(Long latencyAwareUpdateRateMillis) {
+            this.latencyAwareUpdateRateMillis = latencyAwareUpdateRateMillis;
+            return this;
+        }
+
+        /**
+         * @param latencyAwareMinimumMeasurements the number of queries a host must serve before it may be avoided
+         */
+        public ConnectionBuilder latencyAwareMinimumMeasurements(Integer latencyAwareMinimumMeasurements) {
+            this.latencyAwareMinimumMeasurements = latencyAwareMinimumMeasurements;
+            return this;
+        }
+
+        /**
+         * @param speculativeExecution "constant" to start another execution of an idempotent statement after a fixed
+         *                             delay, "percentile" to do so once it is slower than a percentile of the latency
+         *                             of the host, or "none", the default
+         */
+        public ConnectionBuilder speculativeExecution(String speculativeExecution) {
+            this.speculativeExecution = speculativeExecution;
+            return this;
+        }
+
+        /**
+         * @param speculativeExecutionDelayMillis the delay of constant speculative executions, 100 by default
+         */
+        public ConnectionBuilder speculativeExecutionDelayMillis(Long speculativeExecutionDelayMillis) {
+            this.speculativeExecutionDelayMillis = speculativeExecutionDelayMillis;
+            return this;
+        }
+
+        /**
+         * @param speculativeExecutionPercentile the percentile of percentile speculative executions, 99 by default
+         */
+        public ConnectionBuilder speculativeExecutionPercentile(Double speculativeExecutionPercentile) {
+            this.speculativeExecutionPercentile = speculativeExecutionPercentile;
+            return this;
+        }
+
+        /**
+         * @param speculativeExecutionMaxExecutions the maximum number of speculative executions per statement, 1 by
+         *                                          default
+         */
+        public ConnectionBuilder speculativeExecutionMaxExecutions(Integer speculativeExecutionMaxExecutions) {
+            this.speculativeExecutionMaxExecutions = speculativeExecutionMaxExecutions;
+            return this;
+        }
+
+        /**
+         * @param speculativeExecutionHighestTrackableLatencyMillis the highest latency tracked for percentile
+         *                                                          speculative executions, 15000 by default
+         */
+        public ConnectionBuilder speculativeExecutionHighestTrackableLatencyMillis(Long speculativeExecutionHighestTrackableLatencyMillis) {
+            this.speculativeExecutionHighestTrackableLatencyMillis = speculativeExecutionHighestTrackableLatencyMillis;
+            return this;
+        }
+
+        /**
+         * @param slowQueryThresholdMillis the latency from which the queries of the DAOs are logged, negative to not
+         *                                 log them, the default
+         */
+        public ConnectionBuilder slowQueryThresholdMillis(Long slowQueryThresholdMillis) {
+            this.slowQueryThresholdMillis = slowQueryThresholdMillis;
+            return this;
+        }
+
+        /**
+         * @param slowQuerySampleRate the fraction of the slow queries that are logged, 1 by default
+         */
+        public ConnectionBuilder slowQuerySampleRate(Double slowQuerySampleRate) {
+            this.slowQuerySampleRate = slowQuerySampleRate;
+            return this;
+        }
+
+        /**
+         * @param slowQueryMaxPerSecond the maximum number of slow queries logged per second, 10 by default
+         */
+        public ConnectionBuilder slowQueryMaxPerSecond(Integer slowQueryMaxPerSecond) {
+            this.slowQueryMaxPerSecond = slowQueryMaxPerSecond;
+            return this;
+        }
+
+        /**
+         * @param slowQueryLogValues whether the bound values of slow queries are logged, except those of @Secure
+         *                           columns, false by default
+         */
+        public ConnectionBuilder slowQueryLogValues(Boolean slowQueryLogValues) {
+            this.slowQueryLogValues = slowQueryLogValues;
+            return this;
+        }
+
         public CassandraConnect build() {
             return new CassandraConnect(this);
         }
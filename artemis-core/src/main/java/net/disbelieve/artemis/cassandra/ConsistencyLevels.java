@@ -0,0 +1,121 @@
+package com.comcast.artemis.cassandra;
+
+import com.datastax.driver.core.ConsistencyLevel;
+
+/**
+ * The consistency levels used by the DAOs.
+ * <p>
+ * Levels are resolved in this order: the override of the current request (see
+ * {@link com.comcast.artemis.jersey.filter.CassandraConsistencyLevelFilter}), the JVM wide override, then the
+ * configured level. The configured levels and JVM wide overrides are also exposed through
+ * {@link com.comcast.artemis.jmx.CassandraMetadataMXBean}.
+ */
+public class ConsistencyLevels {
+    private static volatile ConsistencyLevel readConsistencyLevel = ConsistencyLevel.ONE;
+    private static volatile ConsistencyLevel writeConsistencyLevel = ConsistencyLevel.ONE;
+    private static volatile ConsistencyLevel readConsistencyLevelOverride;
+    private static volatile ConsistencyLevel writeConsistencyLevelOverride;
+    private static final ThreadLocal<ConsistencyLevel> requestReadConsistencyLevel = new ThreadLocal<ConsistencyLevel>();
+    private static final ThreadLocal<ConsistencyLevel> requestWriteConsistencyLevel = new ThreadLocal<ConsistencyLevel>();
+
+    private ConsistencyLevels() {}
+
+    /**
+     * @return the consistency level to read with on the current thread
+     */
+    public static ConsistencyLevel getRead() {
+        ConsistencyLevel consistencyLevel;
+
+        if ((consistencyLevel = requestReadConsistencyLevel.get()) == null &&
+                (consistencyLevel = readConsistencyLevelOverride) == null) {
+            consistencyLevel = readConsistencyLevel;
+        }
+        return consistencyLevel;
+    }
+
+    /**
+     * @return the consistency level to write with on the current thread
+     */
+    public static ConsistencyLevel getWrite() {
+        ConsistencyLevel consistencyLevel;
+
+        if ((consistencyLevel = requestWriteConsistencyLevel.get()) == null &&
+                (consistencyLevel = writeConsistencyLevelOverride) == null) {
+            consistencyLevel = writeConsistencyLevel;
+        }
+        return consistencyLevel;
+    }
+
+    /**
+     * Sets the overrides of the request being served by the current thread. A null level removes the override.
+     *
+     * @param readConsistencyLevel  the read consistency level override
+     * @param writeConsistencyLevel the write consistency level override
+     */
+    public static void setRequestOverrides(ConsistencyLevel readConsistencyLevel, ConsistencyLevel writeConsistencyLevel) {
+        if (readConsistencyLevel == null) {
+            requestReadConsistencyLevel.remove();
+        } else {
+            requestReadConsistencyLevel.set(readConsistencyLevel);
+        }
+        if (writeConsistencyLevel == null) {
+            requestWriteConsistencyLevel.remove();
+        } else {
+            requestWriteConsistencyLevel.set(writeConsistencyLevel);
+        }
+    }
+
+    /**
+     * @return the read consistency level override of the request being served by the current thread, or null
+     */
+    public static ConsistencyLevel getRequestReadOverride() {
+        return requestReadConsistencyLevel.get();
+    }
+
+    /**
+     * @return the write consistency level override of the request being served by the current thread, or null
+     */
+    public static ConsistencyLevel getRequestWriteOverride() {
+        return requestWriteConsistencyLevel.get();
+    }
+
+    /**
+     * Removes the overrides of the request being served by the current thread.
+     */
+    public static void clearRequestOverrides() {
+        requestReadConsistencyLevel.remove();
+        requestWriteConsistencyLevel.remove();
+    }
+
+    public static ConsistencyLevel getReadConsistencyLevel() {
+        return readConsistencyLevel;
+    }
+
+    public static void setReadConsistencyLevel(ConsistencyLevel consistencyLevel) {
+        readConsistencyLevel = consistencyLevel;
+    }
+
+    public static ConsistencyLevel getWriteConsistencyLevel() {
+        return writeConsistencyLevel;
+    }
+
+    public static void setWriteConsistencyLevel(ConsistencyLevel consistencyLevel) {
+        writeConsistencyLevel = consistencyLevel;
+    }
+
+    public static ConsistencyLevel getReadConsistencyLevelOverride() {
+        return readConsistencyLevelOverride;
+    }
+
+    public static void setReadConsistencyLevelOverride(ConsistencyLevel consistencyLevel) {
+        readConsistencyLevelOverride = consistencyLevel;
+    }
+
+    public static ConsistencyLevel getWriteConsistencyLevelOverride() {
+        return writeConsistencyLevelOverride;
+    }
+
+    public static void setWriteConsistencyLevelOverride(ConsistencyLevel consistencyLevel) {
+        writeConsistencyLevelOverride = consistencyLevel;
+    }
+}
@@ -0,0 +1,248 @@
+package com.comcast.artemis.cassandra;
+
+import com.datastax.driver.core.BatchStatement;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs the queries of the DAOs that take longer than a threshold, at WARN level.
+ * <p>
+ * Each line holds the operation, keyspace and table of the DAO, the coordinator that answered, the consistency level,
+ * the latency, the number of rows of the first page and the query string, with its bound values when enabled. Values
+ * of the columns annotated with @Secure are masked. Slow queries are sampled, then at most maxPerSecond of them are
+ * logged each second, so a slow cluster does not also flood the logs.
+ * <p>
+ * Logging is off until a threshold is set, see {@link CassandraConnect.PROPERTIES#SLOW_QUERY_THRESHOLD}. The settings
+ * and counts are exposed through {@link com.comcast.artemis.jmx.SlowQueryLogMXBean}, which can change them at
+ * runtime.
+ */
+public class SlowQueryLog {
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final String MASK = "****";
+    private static final int MAX_VALUE_LENGTH = 100;
+    private static volatile long thresholdMillis = -1;
+    private static volatile double sampleRate = 1;
+    private static volatile int maxPerSecond = 10;
+    private static volatile boolean logValues;
+    private static final AtomicLong slowQueries = new AtomicLong();
+    private static final AtomicLong loggedQueries = new AtomicLong();
+    private static final AtomicLong second = new AtomicLong();
+    private static final AtomicLong loggedThisSecond = new AtomicLong();
+
+    private SlowQueryLog() {}
+
+    /**
+     * Logs a query once it completes, if it is slow. Queries executed while logging is off are not watched.
+     *
+     * @param operation     the DAO operation the query was executed for
+     * @param keyspace      the keyspace of the DAO
+     * @param table         the table of the DAO
+     * @param maskedColumns the columns whose bound values are masked, as named in the table
+     * @param statement     the statement
+     * @param startNanos    the System.nanoTime() at which the query was executed
+     * @param future        the future of the query
+     */
+    public static void watch(final String operation, final String keyspace, final String table,
+                             final Set<String> maskedColumns, final Statement statement, final long startNanos,
+                             ListenableFuture<ResultSet> future) {
+        if (thresholdMillis < 0) {
+            return;
+        }
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            public void onSuccess(ResultSet resultSet) {
+                long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+                ExecutionInfo executionInfo;
+
+                if (isSlow(latencyMillis)) {
+                    executionInfo = resultSet == null ? null : resultSet.getExecutionInfo();
+                    LOG.warn("Slow query: {} on {}.{} took {} ms, {} rows from {} at {}: {}", operation, keyspace,
+                            table, latencyMillis, resultSet == null ? 0 : resultSet.getAvailableWithoutFetching(),
+                            executionInfo == null ? "unknown" : executionInfo.getQueriedHost(),
+                            getConsistencyLevel(statement), describe(statement, maskedColumns));
+                }
+            }
+
+            public void onFailure(Throwable throwable) {
+                long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+                if (isSlow(latencyMillis)) {
+                    LOG.warn("Slow query: {} on {}.{} failed after {} ms at {} with {}: {}", operation, keyspace,
+                            table, latencyMillis, getConsistencyLevel(statement), throwable,
+                            describe(statement, maskedColumns));
+                }
+            }
+        });
+    }
+
+    /**
+     * Counts a slow query and decides whether it is logged: sampled ones are, until the budget of the current
+     * second is spent.
+     */
+    private static boolean isSlow(long latencyMillis) {
+        long threshold = thresholdMillis;
+        long now;
+        long current;
+
+        if (threshold < 0 || latencyMillis < threshold) {
+            return false;
+        }
+        slowQueries.incrementAndGet();
+
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return false;
+        }
+        now = System.currentTimeMillis() / 1000;
+
+        // A line may be counted against the previous second while it turns, which the budget tolerates
+        if ((current = second.get()) != now && second.compareAndSet(current, now)) {
+            loggedThisSecond.set(0);
+        }
+        if (loggedThisSecond.incrementAndGet() > maxPerSecond) {
+            return false;
+        }
+        loggedQueries.incrementAndGet();
+
+        return true;
+    }
+
+    private static Object getConsistencyLevel(Statement statement) {
+        ConsistencyLevel consistencyLevel = statement.getConsistencyLevel();
+
+        return consistencyLevel == null ? "default consistency" : consistencyLevel;
+    }
+
+    /**
+     * Describes a statement by its query string, or the distinct query strings of a batch, with the bound values of a
+     * BoundStatement when they are logged.
+     */
+    private static String describe(Statement statement, Set<String> maskedColumns) {
+        StringBuilder description = new StringBuilder();
+        Set<String> queries;
+
+        if (statement instanceof BatchStatement) {
+            queries = new LinkedHashSet<String>();
+
+            // The values of every row of a batch would make for unreadable lines
+            for (Statement child : ((BatchStatement) statement).getStatements()) {
+                queries.add(child instanceof BoundStatement ?
+                        ((BoundStatement) child).preparedStatement().getQueryString() : describe(child, maskedColumns));
+            }
+            description.append("BATCH of ").append(((BatchStatement) statement).size()).append(' ')
+                    .append(queries);
+        } else if (statement instanceof BoundStatement) {
+            description.append(((BoundStatement) statement).preparedStatement().getQueryString());
+
+            if (logValues) {
+                appendValues(description, (BoundStatement) statement, maskedColumns);
+            }
+        } else if (statement instanceof RegularStatement) {
+            description.append(((RegularStatement) statement).getQueryString());
+        } else {
+            description.append(statement);
+        }
+
+        return description.toString();
+    }
+
+    private static void appendValues(StringBuilder description, BoundStatement statement, Set<String> maskedColumns) {
+        ColumnDefinitions variables = statement.preparedStatement().getVariables();
+        String name;
+        String value;
+
+        description.append(" [");
+
+        for (int i = 0; i < variables.size(); i++) {
+            name = variables.getName(i);
+
+            if (maskedColumns.contains(name)) {
+                value = MASK;
+            } else if (!statement.isSet(i)) {
+                value = "unset";
+            } else if (statement.getBytesUnsafe(i) == null) {
+                value = "null";
+            } else {
+                try {
+                    value = variables.getType(i).format(statement.getObject(i));
+                } catch (RuntimeException e) {
+                    value = "?";
+                }
+                if (value.length() > MAX_VALUE_LENGTH) {
+                    value = value.substring(0, MAX_VALUE_LENGTH) + "...";
+                }
+            }
+            description.append(i == 0 ? "" : ", ").append(name).append('=').append(value);
+        }
+        description.append(']');
+    }
+
+    /**
+     * @return the latency in milliseconds from which queries are logged, negative when logging is off
+     */
+    public static long getThresholdMillis() {
+        return thresholdMillis;
+    }
+
+    public static void setThresholdMillis(long thresholdMillis) {
+        SlowQueryLog.thresholdMillis = thresholdMillis;
+    }
+
+    /**
+     * @return the fraction of the slow queries that are logged, within the budget
+     */
+    public static double getSampleRate() {
+        return sampleRate;
+    }
+
+    public static void setSampleRate(double sampleRate) {
+        SlowQueryLog.sampleRate = sampleRate;
+    }
+
+    /**
+     * @return the maximum number of slow queries logged per second
+     */
+    public static int getMaxPerSecond() {
+        return maxPerSecond;
+    }
+
+    public static void setMaxPerSecond(int maxPerSecond) {
+        SlowQueryLog.maxPerSecond = maxPerSecond;
+    }
+
+    /**
+     * @return whether the bound values of the queries are logged
+     */
+    public static boolean isLogValues() {
+        return logValues;
+    }
+
+    public static void setLogValues(boolean logValues) {
+        SlowQueryLog.logValues = logValues;
+    }
+
+    /**
+     * @return the number of queries slower than the threshold, logged or not
+     */
+    public static long getSlowQueries() {
+        return slowQueries.get();
+    }
+
+    public static long getLoggedQueries() {
+        return loggedQueries.get();
+    }
+}
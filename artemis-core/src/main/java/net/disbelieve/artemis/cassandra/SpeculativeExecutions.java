@@ -0,0 +1,44 @@
+package com.comcast.artemis.cassandra;
+
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.Host;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the responses to the DAOs that came from a host other than the first one queried.
+ * <p>
+ * With speculative execution enabled, see {@link CassandraConnect.PROPERTIES#SPECULATIVE_EXECUTION}, this is mostly
+ * hedged requests that beat the original. Requests retried on another host after an error are counted as well. The
+ * counts are exposed through {@link com.comcast.artemis.jmx.SpeculativeExecutionMXBean}.
+ */
+public class SpeculativeExecutions {
+    private static final AtomicLong responses = new AtomicLong();
+    private static final AtomicLong responsesFromLaterHost = new AtomicLong();
+
+    private SpeculativeExecutions() {}
+
+    /**
+     * Records a response.
+     *
+     * @param executionInfo the execution info of the response
+     */
+    public static void record(ExecutionInfo executionInfo) {
+        List<Host> triedHosts = executionInfo.getTriedHosts();
+
+        responses.incrementAndGet();
+
+        if (triedHosts.size() > 1 && !triedHosts.get(0).equals(executionInfo.getQueriedHost())) {
+            responsesFromLaterHost.incrementAndGet();
+        }
+    }
+
+    public static long getResponses() {
+        return responses.get();
+    }
+
+    public static long getResponsesFromLaterHost() {
+        return responsesFromLaterHost.get();
+    }
+}
@@ -0,0 +1,116 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.ConsistencyLevels;
+import com.comcast.artemis.cassandra.data.Result;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs asynchronous DAO calls with a bounded number in flight.
+ * <p>
+ * As in PartitionBatchWriter, calls are started from a drain loop rather than recursively from the callbacks, so
+ * callbacks completing on the calling thread can not grow the stack.
+ * <p>
+ * Once maxInFlight calls are in flight, the others start on the thread completing an earlier one, usually a driver
+ * I/O thread, which does not see the request overrides of the caller. The read consistency level of the caller is
+ * therefore captured when the calls are submitted and set as the request override around each call.
+ */
+class BoundedFanOut<R> {
+    private final Queue<Integer> pending = new ConcurrentLinkedQueue<Integer>();
+    private final List<Callable<Result<R>>> calls;
+    private final List<Result<R>> results;
+    private final int maxInFlight;
+    private final ConsistencyLevel readConsistencyLevel = ConsistencyLevels.getRead();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger drainers = new AtomicInteger();
+
+    private BoundedFanOut(List<Callable<Result<R>>> calls, int maxInFlight) {
+        this.calls = calls;
+        this.maxInFlight = Math.max(maxInFlight, 1);
+        this.results = new ArrayList<Result<R>>(calls.size());
+
+        for (int i = 0; i < calls.size(); i++) {
+            pending.add(i);
+            results.add(new Result<R>());
+        }
+    }
+
+    /**
+     * Starts the calls.
+     *
+     * @param calls       the calls, each returning the Result of one query
+     * @param maxInFlight the maximum number of calls whose Result is not complete
+     * @return the Result of each call, in the order of the calls
+     */
+    static <R> List<Result<R>> execute(List<Callable<Result<R>>> calls, int maxInFlight) {
+        BoundedFanOut<R> fanOut = new BoundedFanOut<R>(calls, maxInFlight);
+
+        fanOut.drain();
+
+        return fanOut.results;
+    }
+
+    private void drain() {
+        if (drainers.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            Integer index;
+
+            while (inFlight.get() < maxInFlight && (index = pending.poll()) != null) {
+                inFlight.incrementAndGet();
+                start(index);
+            }
+        } while (drainers.decrementAndGet() != 0);
+    }
+
+    private void start(int index) {
+        final Result<R> result = results.get(index);
+        ConsistencyLevel previousRead = ConsistencyLevels.getRequestReadOverride();
+        ConsistencyLevel previousWrite = ConsistencyLevels.getRequestWriteOverride();
+        Result<R> callResult;
+
+        ConsistencyLevels.setRequestOverrides(readConsistencyLevel, previousWrite);
+        try {
+            callResult = calls.get(index).call();
+        } catch (Exception e) {
+            result.setError(e);
+            complete();
+
+            return;
+        } finally {
+            ConsistencyLevels.setRequestOverrides(previousRead, previousWrite);
+        }
+
+        forward(callResult, result);
+    }
+
+    private void forward(final Result<R> from, final Result<R> to) {
+        Futures.addCallback(from.getMappedFuture(), new FutureCallback<R>() {
+            public void onSuccess(R mapped) {
+                // The ResultSet is always set before the mapped result
+                to.setUnmappedResultSet(Futures.getUnchecked(from.getUnmappedFuture()));
+                to.setMappedResult(mapped);
+                complete();
+            }
+
+            public void onFailure(Throwable throwable) {
+                to.setError(throwable);
+                complete();
+            }
+        });
+    }
+
+    private void complete() {
+        inFlight.decrementAndGet();
+        drain();
+    }
+}
@@ -1,19 +1,29 @@
 package com.comcast.artemis.cassandra.dao;
 
+import com.comcast.artemis.cassandra.ConsistencyLevels;
+import com.comcast.artemis.cassandra.data.ModelAccessor;
 import com.comcast.artemis.exception.ResultAccessException;
-import com.comcast.artemis.jmx.CassandraMetadataMXBeanImpl;
-import com.comcast.artemis.jmx.MXBeansManager;
+import com.datastax.driver.core.BoundStatement;
 import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Statement;
 import com.datastax.driver.core.querybuilder.Clause;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.mapping.annotations.ClusteringColumn;
 import com.datastax.driver.mapping.annotations.Column;
 import com.datastax.driver.mapping.annotations.PartitionKey;
 import com.datastax.driver.mapping.annotations.Table;
+import com.google.common.base.Throwables;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.*;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Created by kmatth207 on 6/3/2015.
@@ -24,6 +34,9 @@ public class CQLUtils {
     private List<String> orderedPrimaryKey;
     private String tableName;
     private String keySpaceName;
+    private ModelAccessor modelAccessor;
+    private static final ConcurrentMap<Class<?>, Map<String, MethodHandle>> KEY_GETTERS =
+            new ConcurrentHashMap<Class<?>, Map<String, MethodHandle>>();
 
 
     static enum QueryType {
@@ -40,43 +53,107 @@ public class CQLUtils {
         setPrimaryKey(modelClass);
     }
 
+    /**
+     * Reads the metadata of the model from its generated ModelAccessor instead of its annotations.
+     *
+     * @param modelAccessor the accessor generated for the model
+     */
+    CQLUtils(ModelAccessor modelAccessor) {
+        this.modelAccessor = modelAccessor;
+        this.keySpaceName = modelAccessor.getKeyspace();
+        this.tableName = modelAccessor.getTable();
+        this.orderedPartitionKey = new ArrayList<String>(modelAccessor.getPartitionKey());
+        this.orderedClusterKey = new ArrayList<String>(modelAccessor.getClusterKey());
+        this.orderedPrimaryKey = new ArrayList<String>(modelAccessor.getPrimaryKey());
+    }
+
     List<Clause> buildClause(List<String> orderedPrimaryKey, Object model) throws ResultAccessException {
-        String columnName, columnValue, getterName, fieldName;
-        Map<String, String> columns = new HashMap<String, String>();
-        List<Clause> clauses = new ArrayList<Clause>();
-        List<Annotation> annotations;
-        Field[] fields = model.getClass().getDeclaredFields();
+        Map<String, MethodHandle> keyGetters;
+        List<Clause> clauses = new ArrayList<Clause>(orderedPrimaryKey.size());
+        MethodHandle getter;
+        Object columnValue;
+
+        if (modelAccessor != null && orderedPrimaryKey.equals(this.orderedPrimaryKey)) {
+            return buildClause(modelAccessor.getPrimaryKeyValues(model));
+        }
+        keyGetters = getKeyGetters(model.getClass());
+
+        for (String key : orderedPrimaryKey) {
+            if ((getter = keyGetters.get(key)) != null) {
+                try {
+                    columnValue = getter.invokeExact(model);
+                } catch (Exception e) {
+                    throw new ResultAccessException(e, "Could not call getter for this field.");
+                } catch (Throwable e) {
+                    throw Throwables.propagate(e);
+                }
+                if (columnValue != null) {
+                    clauses.add(QueryBuilder.eq(key, columnValue));
+                }
+            }
+        }
+
+        return clauses;
+    }
+
+    /**
+     * Gets the getters of the primary key columns of a model class, looked up once per class.
+     * <p>
+     * Each getter is the public getXxx method of the field or, if there is none, the field itself, and takes and
+     * returns an Object so that it can be invoked exactly.
+     *
+     * @param modelClass the model class
+     * @return the getters by column name
+     * @throws ResultAccessException if a key field has no getter and can not be read
+     */
+    private Map<String, MethodHandle> getKeyGetters(Class<?> modelClass) throws ResultAccessException {
+        Map<String, MethodHandle> keyGetters = KEY_GETTERS.get(modelClass);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodType getterType = MethodType.methodType(Object.class, Object.class);
+        String fieldName;
         Method method;
+        MethodHandle getter;
 
-        for (Field field : fields) {
-            fieldName = field.getName();
-            columnName = getColumnName(field);
-            annotations = Arrays.asList(field.getDeclaredAnnotations());
+        if (keyGetters != null) {
+            return keyGetters;
+        }
+        keyGetters = new HashMap<String, MethodHandle>();
 
-            if(!annotations.isEmpty() && (annotations.get(0) instanceof PartitionKey ||
-                    annotations.get(0) instanceof ClusteringColumn)) {
-                getterName = "get"+fieldName.substring(0,1).toUpperCase()+fieldName.substring(1);
+        for (Field field : modelClass.getDeclaredFields()) {
+            if (field.getAnnotation(PartitionKey.class) == null && field.getAnnotation(ClusteringColumn.class) == null) {
+                continue;
+            }
+            fieldName = field.getName();
 
+            try {
                 try {
-                    method = model.getClass().getMethod(getterName);
-                    columnValue = (String)method.invoke(model);
-
-                    if(columnValue != null) {
-                        columns.put(columnName, columnValue);
-                    }
+                    method = modelClass.getMethod(
+                            "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1));
+                    // The public lookup can not call the public getters of a class that is not itself public
+                    method.setAccessible(true);
+                    getter = lookup.unreflect(method);
                 } catch (NoSuchMethodException e) {
-                    throw new ResultAccessException(e, "No getter for this field exists.");
-                } catch (InvocationTargetException e) {
-                    throw new ResultAccessException(e, "Could not call getter for this field.");
-                } catch (IllegalAccessException e) {
-                    throw new ResultAccessException(e, "Could not call getter for this field.");
+                    field.setAccessible(true);
+                    getter = lookup.unreflectGetter(field);
                 }
+            } catch (IllegalAccessException e) {
+                throw new ResultAccessException(e, "Could not call getter for this field.");
+            } catch (SecurityException e) {
+                throw new ResultAccessException(e, "No getter for this field exists.");
             }
+            keyGetters.put(getColumnName(field), getter.asType(getterType));
         }
+        KEY_GETTERS.putIfAbsent(modelClass, keyGetters);
+
+        return keyGetters;
+    }
 
-        for(String key : orderedPrimaryKey) {
-            if(columns.containsKey(key)) {
-                clauses.add(QueryBuilder.eq(key, columns.get(key)));
+    private List<Clause> buildClause(Object[] primaryKeyValues) {
+        List<Clause> clauses = new ArrayList<Clause>();
+
+        for (int i = 0; i < primaryKeyValues.length; i++) {
+            if (primaryKeyValues[i] != null) {
+                clauses.add(QueryBuilder.eq(orderedPrimaryKey.get(i), primaryKeyValues[i]));
             }
         }
 
@@ -101,7 +178,31 @@ public class CQLUtils {
     }
 
     /**
-     * Gets consistency level.
+     * Gets the columns of the fields annotated with @Secure, whose values are encrypted. The annotation belongs to the
+     * crypt library and is matched by name.
+     *
+     * @param modelClass the model
+     * @return the columns, as named in the table
+     */
+    Set<String> getSecureColumns(Class modelClass) {
+        Set<String> secureColumns = new HashSet<String>();
+        String columnName;
+
+        for (Field field : modelClass.getDeclaredFields()) {
+            for (Annotation annotation : field.getAnnotations()) {
+                if (annotation.annotationType().getSimpleName().equals("Secure")) {
+                    columnName = getColumnName(field);
+                    secureColumns.add(columnName.startsWith("\"") ?
+                            columnName.substring(1, columnName.length() - 1) : columnName.toLowerCase());
+                }
+            }
+        }
+
+        return secureColumns;
+    }
+
+    /**
+     * Gets consistency level of the current request.
      *
      * @param queryType the query type
      * @return the consistency level
@@ -110,17 +211,36 @@ public class CQLUtils {
         ConsistencyLevel consistencyLevel = null;
 
         if (queryType == QueryType.READ) {
-            consistencyLevel = ConsistencyLevel.valueOf((String) MXBeansManager.getMXBeanAttribute(
-                    CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.READ_CONSISTENCY_LEVEL.toString()));
+            consistencyLevel = ConsistencyLevels.getRead();
         } else if (queryType == QueryType.WRITE) {
-            consistencyLevel = ConsistencyLevel.valueOf((String) MXBeansManager.getMXBeanAttribute(
-                    CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.WRITE_CONSISTENCY_LEVEL.toString()));
+            consistencyLevel = ConsistencyLevels.getWrite();
         }
         return consistencyLevel;
     }
 
+    /**
+     * Gets the serialized PRIMARY KEY bound to a statement.
+     *
+     * @param statement         the statement
+     * @param orderedPrimaryKey the columns of the primary key
+     * @return the value of each primary key column, or null if the statement is not a BoundStatement binding all of them
+     */
+    static List<ByteBuffer> getPrimaryKeyBytes(Statement statement, List<String> orderedPrimaryKey) {
+        List<ByteBuffer> key = new ArrayList<ByteBuffer>(orderedPrimaryKey.size());
+
+        if (!(statement instanceof BoundStatement)) {
+            return null;
+        }
+        try {
+            for (String column : orderedPrimaryKey) {
+                key.add(((BoundStatement) statement).getBytesUnsafe(column));
+            }
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return key;
+    }
+
     String getKeySpace() {
         return this.keySpaceName;
     }
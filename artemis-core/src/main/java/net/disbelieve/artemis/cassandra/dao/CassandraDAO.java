@@ -1,13 +1,30 @@
 package com.comcast.artemis.cassandra.dao;
 
 import com.comcast.artemis.cassandra.CassandraConnect;
+import com.comcast.artemis.cassandra.SlowQueryLog;
+import com.comcast.artemis.cassandra.SpeculativeExecutions;
+import com.comcast.artemis.cassandra.data.Cached;
+import com.comcast.artemis.cassandra.data.DataVersion;
+import com.comcast.artemis.cassandra.data.ModelAccessor;
+import com.comcast.artemis.cassandra.data.ModelAccessors;
+import com.comcast.artemis.cassandra.data.Page;
+import com.comcast.artemis.cassandra.data.PagedIterator;
 import com.comcast.artemis.cassandra.data.Result;
 import com.comcast.artemis.exception.ResultAccessException;
+import com.comcast.artemis.jmx.MXBeansManager;
 import com.comcast.x1.crypt.CryptUtil;
 import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.PagingStateException;
 import com.datastax.driver.core.querybuilder.*;
+import com.datastax.driver.core.utils.Bytes;
 import com.datastax.driver.mapping.Mapper;
 import com.datastax.driver.mapping.MappingManager;
+import com.google.common.base.Function;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -15,9 +32,12 @@ import com.google.common.util.concurrent.ListenableFuture;
 import javax.management.relation.RelationServiceNotRegisteredException;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 
 /**
@@ -26,17 +46,57 @@ import java.util.regex.Pattern;
  * @param <T> the type parameter
  */
 public class CassandraDAO<T> {
-    private final static Pattern preparedQueryPattern = Pattern.compile("([<>=]{1,2}|IN).+?(AND|$)");
     protected static final Session session = CassandraConnect.getSession();
     protected MappingManager mappingManager;
     protected Mapper mapper;
     protected String keyspaceName;
     protected String tableName;
-    private Map<Integer, PreparedStatement> preparedQueries;
+    private String selectPrefix;
+    private String countPrefix;
+    private String deletePrefix;
+    private TokenRangeScan<T> tokenRangeScan;
+    private PartitionBatchWriter partitionBatchWriter;
+    /**
+     * The maximum number of statements putMany sends in one batch
+     */
+    protected int putManyBatchSize = 100;
+    /**
+     * The maximum number of batches putMany has in flight at once
+     */
+    protected int putManyMaxInFlight = 16;
+    /**
+     * The maximum number of queries getMany and getRows have in flight at once
+     */
+    protected int getManyMaxInFlight = 32;
+    /**
+     * Whether the writes of putOne, putMany and the deletes are marked idempotent, and so may be executed
+     * speculatively. Only set it if the table has no counters and its writes are not lightweight transactions.
+     */
+    protected boolean idempotentWrites = false;
+    /**
+     * The number of rows from which a result is decrypted on the pool in the PARALLEL decryption mode
+     */
+    protected int parallelDecryptionThreshold = 500;
+    private volatile WriteBehindBuffer writeBehindBuffer;
+    private EntityCache<T> entityCache;
+    private KeyFilter keyFilter;
     private List<String> orderedPrimaryKey;
     private List<String> orderedPartitionKey;
     private List<String> orderedClusterKey;
     private CQLUtils cqlUtils;
+    private ModelAccessor<T> modelAccessor;
+    private Class<T> modelClass;
+    private volatile ProjectionMapper<T> projectionMapper;
+    private volatile String versionPrefix;
+    private int versionFirstWriteTime;
+    private final RowDecryptor<T> rowDecryptor = new RowDecryptor<T>();
+    private final OperationLatencies latencies = new OperationLatencies();
+    private Set<String> secureColumns = Collections.emptySet();
+    private final Function<T, T> decryptRow = new Function<T, T>() {
+        public T apply(T row) {
+            return rowDecryptor.decrypt(row);
+        }
+    };
 
     /**
      * Instantiates a new Cassandra dAO.
@@ -48,15 +108,100 @@ public class CassandraDAO<T> {
 
         if (type instanceof ParameterizedType) {
             Type[] types = ((ParameterizedType) type).getActualTypeArguments();
-            Class modelClass = (Class) types[0];
-            cqlUtils = new CQLUtils(modelClass);
+            modelClass = (Class) types[0];
+            modelAccessor = ModelAccessors.forClass(modelClass);
+            cqlUtils = modelAccessor == null ? new CQLUtils(modelClass) : new CQLUtils(modelAccessor);
             mapper = mappingManager.mapper(modelClass);
             keyspaceName = cqlUtils.getKeySpace();
             tableName = cqlUtils.getTable();
             orderedPrimaryKey = cqlUtils.getPrimaryKey();
             orderedPartitionKey = cqlUtils.getPartitionKey();
             orderedClusterKey = cqlUtils.getClusterKey();
-            preparedQueries = new HashMap<Integer, PreparedStatement>();
+            secureColumns = cqlUtils.getSecureColumns(modelClass);
+            selectPrefix = "SELECT * FROM " + keyspaceName + "." + tableName + " WHERE ";
+            countPrefix = "SELECT count(*) FROM " + keyspaceName + "." + tableName + " WHERE ";
+            deletePrefix = "DELETE FROM " + keyspaceName + "." + tableName + " WHERE ";
+            tokenRangeScan = new TokenRangeScan<T>(session, selectPrefix, orderedPartitionKey,
+                    new Function<ResultSet, Iterator<T>>() {
+                        public Iterator<T> apply(ResultSet resultSet) {
+                            // The first page holds fetchSize rows unless the whole sub-range fit in it
+                            return new PagedIterator<T>(resultSet,
+                                    Iterators.transform(mapRows(resultSet), decryptRow),
+                                    Math.max(resultSet.getAvailableWithoutFetching(), 1));
+                        }
+                    });
+            partitionBatchWriter = new PartitionBatchWriter() {
+                ResultSetFuture execute(Statement statement, Operation operation) {
+                    return executeAsync(statement, operation);
+                }
+            };
+            MXBeansManager.registerMXBean(rowDecryptor, "Decryption", keyspaceName, tableName);
+            MXBeansManager.registerMXBean(latencies, "Latency", keyspaceName, tableName);
+            Cached cached = (Cached) modelClass.getAnnotation(Cached.class);
+
+            if (cached != null) {
+                enableCache(cached.maximumSize(), cached.expireAfterWriteMillis(), cached.refreshAfterWriteMillis());
+            }
+        }
+    }
+
+    /**
+     * Turns on the entity cache, which is also turned on by annotating the model with @Cached.
+     * <p>
+     * getOne, and get when the model sets the whole PRIMARY KEY, read through the cache. Rows written or deleted
+     * through this DAO are invalidated; deletes by anything but the PRIMARY KEY, executeBatch and putAll invalidate
+     * the whole cache. Writes made by other DAOs or other processes are only seen once the row expires or is
+     * refreshed. Cached rows are shared between callers and must not be modified. Statistics are registered as an
+     * EntityCacheMXBean.
+     *
+     * @param maximumSize             the maximum number of rows cached
+     * @param expireAfterWriteMillis  the time after which a cached row is evicted
+     * @param refreshAfterWriteMillis the time after which a cached row is reloaded in the background when it is read,
+     *                                0 to never reload
+     */
+    public void enableCache(long maximumSize, long expireAfterWriteMillis, long refreshAfterWriteMillis) {
+        entityCache = new EntityCache<T>(new AsyncFunction<Statement, T>() {
+            public ListenableFuture<T> apply(Statement statement) {
+                return executeStatement(statement, false, true, Operation.GET_ONE).getMappedFuture();
+            }
+        }, orderedPrimaryKey, maximumSize, expireAfterWriteMillis, refreshAfterWriteMillis);
+        MXBeansManager.registerMXBean(entityCache, "EntityCache", keyspaceName, tableName);
+    }
+
+    /**
+     * Turns on the key filter, a Bloom filter of the PRIMARY KEYs in the table that lets getOne return null without
+     * a query when a key is definitely absent.
+     * <p>
+     * The filter is built by a token range scan of the key columns, in the background, and keys written through this
+     * DAO are added to it. Keys written by other processes are only known after the next rebuild, so the filter
+     * should only be used on tables written through this DAO. Statistics are registered as a KeyFilterMXBean.
+     *
+     * @param expectedKeys          the number of keys the filter is sized for at least
+     * @param falsePositiveRate     the rate at which getOne still queries absent keys
+     * @param rebuildIntervalMillis the time between rebuilds, 0 to only build once
+     */
+    public void enableKeyFilter(long expectedKeys, double falsePositiveRate, long rebuildIntervalMillis) {
+        keyFilter = new KeyFilter(session, keyspaceName + "." + tableName, orderedPartitionKey, orderedPrimaryKey,
+                expectedKeys, falsePositiveRate, rebuildIntervalMillis);
+        MXBeansManager.registerMXBean(keyFilter, "KeyFilter", keyspaceName, tableName);
+    }
+
+    /**
+     * Sets when the fields annotated with @Secure are decrypted in the rows returned as a list or single object.
+     * The default is EAGER. Decryption statistics are registered as a DecryptionMXBean.
+     *
+     * @param decryptionMode the decryption mode
+     */
+    public void setDecryptionMode(DecryptionMode decryptionMode) {
+        rowDecryptor.setMode(decryptionMode);
+    }
+
+    /**
+     * Removes every row from the entity cache.
+     */
+    public void invalidateCache() {
+        if (entityCache != null) {
+            entityCache.invalidateAll();
         }
     }
 
@@ -66,6 +211,9 @@ public class CassandraDAO<T> {
      * The values provided must correspond to the columns composing the PRIMARY
      * KEY (in the order of said primary key).
      * <p>
+     * When the entity cache is enabled the record is read through it and the Result holds no ResultSet. When the key
+     * filter reports the key as absent no query is made and the Result holds null.
+     * <p>
      *
      * @param primaryKey the primary key of the record to fetch
      * @return the Result containing the ResultSet mapped to the model type and, in the case of an error,
@@ -73,9 +221,81 @@ public class CassandraDAO<T> {
      */
     public Result<T> getOne(Object... primaryKey) {
         Statement statement = mapper.getQuery(primaryKey);
-        statement.setConsistencyLevel(cqlUtils.getConsistencyLevel(CQLUtils.QueryType.READ));
+        setQueryOptions(statement, CQLUtils.QueryType.READ);
+
+        Result<T> result;
+
+        if (keyFilter != null && !keyFilter.mightContain(CQLUtils.getPrimaryKeyBytes(statement, orderedPrimaryKey))) {
+            result = new Result<T>();
+            result.setUnmappedResultSet(null);
+            result.setMappedResult(null);
+
+            return result;
+        }
+        if (entityCache != null) {
+            result = entityCache.get(statement);
+        } else {
+            result = executeStatement(statement, false, true, Operation.GET_ONE);
+        }
+        if (keyFilter != null) {
+            Futures.addCallback(result.getMappedFuture(), new FutureCallback<T>() {
+                public void onSuccess(T row) {
+                    if (row == null) {
+                        keyFilter.recordFalsePositive();
+                    }
+                }
+
+                public void onFailure(Throwable throwable) {
+                }
+            });
+        }
+        return result;
+    }
 
-        return executeStatement(statement, false, true);
+    /**
+     * Gets the listed columns of a record given it's PRIMARY KEY
+     * <p>
+     * The values provided must correspond to the columns composing the PRIMARY
+     * KEY (in the order of said primary key).
+     * <p>
+     * Only the listed columns are selected and the fields of the other columns are left null. The record is never
+     * read through the entity cache, but the key filter applies as for getOne.
+     * <p>
+     *
+     * @param columns    the columns of the table to select, all of them if null or empty; an unknown
+     *                   column fails the Result
+     * @param primaryKey the primary key of the record to fetch
+     * @return the Result containing the ResultSet mapped to the model type and, in the case of an error,
+     * the Throwable
+     */
+    public Result<T> getOne(List<String> columns, Object... primaryKey) {
+        Result<T> result = new Result<T>();
+        List<Clause> clauses = new ArrayList<Clause>(orderedPrimaryKey.size());
+        BoundStatement statement;
+
+        if (primaryKey.length != orderedPrimaryKey.size()) {
+            result.setError(new ResultAccessException("Wrong key count"));
+
+            return result;
+        }
+        for (int i = 0; i < primaryKey.length; i++) {
+            clauses.add(QueryBuilder.eq(orderedPrimaryKey.get(i), primaryKey[i]));
+        }
+        try {
+            statement = bindPreparedStatement(getSelectPrefix(columns), clauses, null, CQLUtils.QueryType.READ);
+        } catch (ResultAccessException e) {
+            result.setError(e);
+
+            return result;
+        }
+        if (keyFilter != null && !keyFilter.mightContain(CQLUtils.getPrimaryKeyBytes(statement, orderedPrimaryKey))) {
+            result.setUnmappedResultSet(null);
+            result.setMappedResult(null);
+
+            return result;
+        }
+
+        return executeStatement(statement, false, true, Operation.GET_ONE);
     }
 
     /**
@@ -90,14 +310,33 @@ public class CassandraDAO<T> {
      * the Throwable
      */
     public Result<List<T>> getRow(Object... partitionKey) {
+        return getRow((List<String>) null, partitionKey);
+    }
+
+    /**
+     * Gets the listed columns of all records in a row given it's  PARTITION KEY.
+     * <p>
+     * The values provided must correspond to the columns composing the PARTITION
+     * KEY (in the order of said partition key).
+     * <p>
+     * Only the listed columns are selected and the fields of the other columns are left null.
+     * <p>
+     *
+     * @param columns      the columns of the table to select, all of them if null or empty; an unknown
+     *                     column fails the Result
+     * @param partitionKey the partition key of the record to fetch
+     * @return the Result containing the ResultSet mapped to the model type and, in the case of an error,
+     * the Throwable
+     */
+    public Result<List<T>> getRow(List<String> columns, Object... partitionKey) {
         List<Clause> clauses = new ArrayList<Clause>();
         try {
             for (int i = 0; i < partitionKey.length; i++) {
                 clauses.add(QueryBuilder.eq(orderedPartitionKey.get(i), partitionKey[i]));
             }
 
-            return getWhere(clauses);
-        } catch (ArrayIndexOutOfBoundsException e) {
+            return getWhere(clauses, columns, Operation.GET_ROW);
+        } catch (IndexOutOfBoundsException e) {
             Result result = new Result();
             result.setError(new ResultAccessException(e, "Wrong key count"));
 
@@ -105,6 +344,90 @@ public class CassandraDAO<T> {
         }
     }
 
+    /**
+     * Gets many records given their PRIMARY KEYs.
+     * <p>
+     * Each record is read by its own single-partition query, as by getOne, with at most getManyMaxInFlight queries
+     * in flight. Unlike an IN clause, the queries are routed to the replicas of each partition and one slow or
+     * failing key does not hold up or fail the others.
+     * <p>
+     * The values provided must correspond to the columns composing the PRIMARY
+     * KEY (in the order of said primary key).
+     * <p>
+     *
+     * @param primaryKeys the primary keys of the records to fetch
+     * @return the Result of each key, in the order of the keys. Futures.successfulAsList over their mapped futures
+     * gives every record in order, with null for the keys that are absent or failed.
+     */
+    public List<Result<T>> getMany(List<Object[]> primaryKeys) {
+        List<Callable<Result<T>>> calls = new ArrayList<Callable<Result<T>>>(primaryKeys.size());
+
+        for (final Object[] primaryKey : primaryKeys) {
+            calls.add(new Callable<Result<T>>() {
+                public Result<T> call() {
+                    return getOne(primaryKey);
+                }
+            });
+        }
+
+        return BoundedFanOut.execute(calls, getManyMaxInFlight);
+    }
+
+    /**
+     * Gets all records in many rows given their PARTITION KEYs.
+     * <p>
+     * Each row is read by its own single-partition query, as by getRow, with at most getManyMaxInFlight queries
+     * in flight.
+     * <p>
+     * The values provided must correspond to the columns composing the PARTITION
+     * KEY (in the order of said partition key).
+     * <p>
+     *
+     * @param partitionKeys the partition keys of the rows to fetch
+     * @return the Result of each row, in the order of the keys
+     */
+    public List<Result<List<T>>> getRows(List<Object[]> partitionKeys) {
+        List<Callable<Result<List<T>>>> calls = new ArrayList<Callable<Result<List<T>>>>(partitionKeys.size());
+
+        for (final Object[] partitionKey : partitionKeys) {
+            calls.add(new Callable<Result<List<T>>>() {
+                public Result<List<T>> call() {
+                    return getRow(partitionKey);
+                }
+            });
+        }
+
+        return BoundedFanOut.execute(calls, getManyMaxInFlight);
+    }
+
+    /**
+     * Gets all records in a row given it's PARTITION KEY, one page at a time.
+     * <p>
+     * The values provided must correspond to the columns composing the PARTITION
+     * KEY (in the order of said partition key).
+     * <p>
+     *
+     * @param fetchSize    the number of rows to fetch per page
+     * @param partitionKey the partition key of the record to fetch
+     * @return the Result containing an iterator that lazily maps the ResultSet to the model type and, in the case of
+     * an error, the Throwable
+     */
+    public Result<PagedIterator<T>> getRowIterator(int fetchSize, Object... partitionKey) {
+        List<Clause> clauses = new ArrayList<Clause>();
+
+        if (partitionKey.length > orderedPartitionKey.size()) {
+            Result result = new Result();
+            result.setError(new ResultAccessException("Wrong key count"));
+
+            return result;
+        }
+        for (int i = 0; i < partitionKey.length; i++) {
+            clauses.add(QueryBuilder.eq(orderedPartitionKey.get(i), partitionKey[i]));
+        }
+
+        return getWhereIterator(clauses, fetchSize);
+    }
+
     @Deprecated
     public Result<List<T>> getAll(Object... partitionKey) {
         return getRow(partitionKey);
@@ -133,8 +456,42 @@ public class CassandraDAO<T> {
         if(limit != null) {
             select.limit(limit);
         }
+        setQueryOptions(select, CQLUtils.QueryType.READ);
+
+        return executeStatement(select, true, true, Operation.GET_TABLE);
+    }
 
-        return executeStatement(select, true, true);
+    /**
+     * Gets all records in a table, one page at a time
+     *
+     * @param fetchSize the number of rows to fetch per page
+     * @return the Result containing an iterator that lazily maps the ResultSet to the model type and, in the case of
+     * an error, the Throwable
+     */
+    public Result<PagedIterator<T>> getTableIterator(int fetchSize) {
+        Select select = QueryBuilder.select().all().from(keyspaceName, tableName);
+        setQueryOptions(select, CQLUtils.QueryType.READ);
+
+        return executeStatement(select, fetchSize, Operation.GET_ITERATOR);
+    }
+
+    /**
+     * Reads all records in a table in parallel.
+     * <p>
+     * The token ring is split into sub-ranges which are read concurrently, each by its own token range query,
+     * so the scan is spread over every node rather than a single coordinator. Rows are handed to the callback as
+     * they are read, in no particular order and from several threads at once.
+     * <p>
+     *
+     * @param parallelism   the maximum number of sub-ranges read at once
+     * @param fetchSize     the number of rows to fetch per page
+     * @param rowsPerSecond the maximum rate at which rows are read, or null for no limit
+     * @param callback      receives every row in the table
+     * @return the Result containing the number of rows read and, in the case of an error, the Throwable
+     */
+    public Result<Long> scanTable(int parallelism, int fetchSize, Double rowsPerSecond, RowCallback<T> callback) {
+        return tokenRangeScan.execute(parallelism, fetchSize, rowsPerSecond,
+                cqlUtils.getConsistencyLevel(CQLUtils.QueryType.READ), callback);
     }
 
     /**
@@ -149,20 +506,262 @@ public class CassandraDAO<T> {
      * @return the result
      */
     public Result<List<T>> getWhere(List<Clause> whereConditions) {
-        Select select = QueryBuilder.select().from(keyspaceName, tableName);
+        return getWhere(whereConditions, null);
+    }
+
+    /**
+     * Gets the listed columns of the records matching the conditions.
+     * <p>
+     * Only the listed columns are selected and the fields of the other columns are left null. Like every conditional
+     * query, the projection is prepared once per shape and then bound.
+     *
+     * @param whereConditions the conditions of the select
+     * @param columns         the columns of the table to select, all of them if null or empty; an unknown
+     *                        column fails the Result
+     * @return the result
+     */
+    public Result<List<T>> getWhere(List<Clause> whereConditions, List<String> columns) {
+        return getWhere(whereConditions, columns, Operation.GET_WHERE);
+    }
+
+    private Result<List<T>> getWhere(List<Clause> whereConditions, List<String> columns, Operation operation) {
         Result<List<T>> result = new Result<List<T>>();
 
         try {
-            Select.Where where = select.where();
+            BoundStatement boundStatement = bindPreparedStatement(getSelectPrefix(columns), whereConditions, null,
+                    CQLUtils.QueryType.READ);
+            result = executeStatement(boundStatement, true, true, operation);
+        } catch (ResultAccessException e) {
+            result.setError(e);
+        }
+        return result;
+    }
+
+    /**
+     * Get where, one page at a time.
+     * <p>
+     * Currently only the =,<, and > operands are supported on primary keys (no secondary indexes).
+     * The values provided must correspond to the columns composing the PRIMARY
+     * KEY (in the order of said primary key).
+     * <p>
+     *
+     * @param whereConditions the conditions of the select
+     * @param fetchSize       the number of rows to fetch per page
+     * @return the Result containing an iterator that lazily maps the ResultSet to the model type and, in the case of
+     * an error, the Throwable
+     */
+    public Result<PagedIterator<T>> getWhereIterator(List<Clause> whereConditions, int fetchSize) {
+        Result<PagedIterator<T>> result = new Result<PagedIterator<T>>();
+
+        try {
+            result = executeStatement(bindPreparedStatement(selectPrefix, whereConditions, null, CQLUtils.QueryType.READ),
+                    fetchSize, Operation.GET_ITERATOR);
+        } catch (ResultAccessException e) {
+            result.setError(e);
+        }
+        return result;
+    }
+
+    /**
+     * Gets one page of the records in a row given it's PARTITION KEY.
+     * <p>
+     * The values provided must correspond to the columns composing the PARTITION
+     * KEY (in the order of said partition key).
+     * <p>
+     *
+     * @param pageSize     the maximum number of records in the page
+     * @param cursor       the cursor of the page, as returned with the previous page, or null for the first page
+     * @param partitionKey the partition key of the records to fetch
+     * @return the Result containing the page and, in the case of an error, the Throwable
+     */
+    public Result<Page<T>> getRowPage(int pageSize, String cursor, Object... partitionKey) {
+        List<Clause> clauses = new ArrayList<Clause>();
+
+        if (partitionKey.length > orderedPartitionKey.size()) {
+            Result<Page<T>> result = new Result<Page<T>>();
+            result.setError(new ResultAccessException("Wrong key count"));
+
+            return result;
+        }
+        for (int i = 0; i < partitionKey.length; i++) {
+            clauses.add(QueryBuilder.eq(orderedPartitionKey.get(i), partitionKey[i]));
+        }
+
+        return getWherePage(clauses, pageSize, cursor);
+    }
+
+    /**
+     * Gets one page of the records matching the conditions.
+     * <p>
+     * Paging is stateless: the cursor holds the driver paging state, signed by PageCursors, so the next page can be
+     * requested from any instance sharing the cursor secret and only one page is ever held in memory. A cursor can
+     * only be used with the query that returned it; a cursor that was altered or belongs to another query fails the
+     * Result with a ResultAccessException.
+     * <p>
+     * Currently only the =,<, and > operands are supported on primary keys (no secondary indexes).
+     *
+     * @param whereConditions the conditions of the select
+     * @param pageSize        the maximum number of records in the page
+     * @param cursor          the cursor of the page, as returned with the previous page, or null for the first page
+     * @return the Result containing the page and, in the case of an error, the Throwable
+     */
+    public Result<Page<T>> getWherePage(List<Clause> whereConditions, int pageSize, String cursor) {
+        final Result<Page<T>> result = new Result<Page<T>>();
+        BoundStatement statement;
+
+        try {
+            statement = bindPreparedStatement(selectPrefix, whereConditions, null, CQLUtils.QueryType.READ);
+            statement.setFetchSize(pageSize);
 
-            for (Clause condition : whereConditions) {
-                where.and(condition);
+            if (cursor != null && !cursor.isEmpty()) {
+                statement.setPagingState(PageCursors.decode(cursor));
             }
-            BoundStatement boundStatement = bindPreparedStatement(select, whereConditions);
-            result = executeStatement(boundStatement, true, true);
         } catch (ResultAccessException e) {
             result.setError(e);
+
+            return result;
+        } catch (PagingStateException e) {
+            result.setError(new ResultAccessException("Cursor does not belong to this query"));
+
+            return result;
         }
+
+        Futures.addCallback(executeAsync(statement, Operation.GET_PAGE), new FutureCallback<ResultSet>() {
+            public void onSuccess(ResultSet resultSet) {
+                // Only the rows of this page; iterating further would fetch the next one
+                List<T> rows = Lists.newArrayList(Iterators.limit(mapRows(resultSet),
+                        resultSet.getAvailableWithoutFetching()));
+                final String nextCursor = PageCursors.encode(resultSet.getExecutionInfo().getPagingState());
+
+                SpeculativeExecutions.record(resultSet.getExecutionInfo());
+                result.setUnmappedResultSet(resultSet);
+                Futures.addCallback(rowDecryptor.decrypt(rows, parallelDecryptionThreshold),
+                        new FutureCallback<List<T>>() {
+                            public void onSuccess(List<T> decrypted) {
+                                result.setMappedResult(new Page<T>(decrypted, nextCursor));
+                            }
+
+                            public void onFailure(Throwable throwable) {
+                                result.setError(throwable);
+                            }
+                        });
+            }
+
+            public void onFailure(Throwable throwable) {
+                result.setError(throwable);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Gets the version of the records in a row given it's PARTITION KEY.
+     * <p>
+     * The values provided must correspond to the columns composing the PARTITION
+     * KEY (in the order of said partition key).
+     * <p>
+     *
+     * @param partitionKey the partition key of the records
+     * @return the Result containing the version of the records and, in the case of an error, the Throwable
+     * @see #getWhereVersion(List)
+     */
+    public Result<DataVersion> getRowVersion(Object... partitionKey) {
+        List<Clause> clauses = new ArrayList<Clause>();
+
+        if (partitionKey.length > orderedPartitionKey.size()) {
+            Result<DataVersion> result = new Result<DataVersion>();
+            result.setError(new ResultAccessException("Wrong key count"));
+
+            return result;
+        }
+        for (int i = 0; i < partitionKey.length; i++) {
+            clauses.add(QueryBuilder.eq(orderedPartitionKey.get(i), partitionKey[i]));
+        }
+
+        return getWhereVersion(clauses);
+    }
+
+    /**
+     * Gets the version of the records matching the conditions: a digest of the PRIMARY KEY, the writetime() of every
+     * other column, null included, and the value of every collection column of each record, along with their latest
+     * write time and number.
+     * <p>
+     * Only the keys, write times and collections are selected, so the version can be compared with the one a client
+     * already has, to answer a conditional request, more cheaply than reading the records. Writing, nulling or deleting
+     * any column, or adding or removing a record, changes the digest. The records are paged at the usual fetch size,
+     * each page folded into the version as it arrives, without blocking a thread.
+     * <p>
+     * Currently only the =,<, and > operands are supported on primary keys (no secondary indexes).
+     *
+     * @param whereConditions the conditions of the select
+     * @return the Result containing the version of the records and, in the case of an error, the Throwable
+     */
+    public Result<DataVersion> getWhereVersion(List<Clause> whereConditions) {
+        final Result<DataVersion> result = new Result<DataVersion>();
+        BoundStatement statement;
+
+        try {
+            statement = bindPreparedStatement(getVersionPrefix(), whereConditions, null, CQLUtils.QueryType.READ);
+        } catch (ResultAccessException e) {
+            result.setError(e);
+
+            return result;
+        }
+        final int firstWriteTime = versionFirstWriteTime;
+
+        Futures.addCallback(executeAsync(statement, Operation.GET_VERSION), new FutureCallback<ResultSet>() {
+            private final Hasher digest = Hashing.md5().newHasher();
+            private long lastWriteTime;
+            private int rowCount;
+            private boolean firstPage = true;
+
+            public void onSuccess(final ResultSet resultSet) {
+                Row row;
+
+                // Called again, with the same ResultSet, as each further page arrives
+                if (firstPage) {
+                    firstPage = false;
+                    SpeculativeExecutions.record(resultSet.getExecutionInfo());
+                    result.setUnmappedResultSet(resultSet);
+                }
+                // Only the rows already fetched are read, so iterating never blocks on the next page
+                while (resultSet.getAvailableWithoutFetching() > 0) {
+                    row = resultSet.one();
+
+                    for (int i = 0; i < row.getColumnDefinitions().size(); i++) {
+                        ByteBuffer bytes = row.getBytesUnsafe(i);
+
+                        // The length sets the values apart, and -1 marks a null
+                        if (bytes == null) {
+                            digest.putInt(-1);
+                        } else {
+                            digest.putInt(bytes.remaining()).putBytes(Bytes.getArray(bytes));
+
+                            if (i >= firstWriteTime) {
+                                lastWriteTime = Math.max(lastWriteTime, row.getLong(i));
+                            }
+                        }
+                    }
+                    rowCount++;
+                }
+                if (resultSet.isFullyFetched()) {
+                    result.setMappedResult(new DataVersion(lastWriteTime, rowCount, digest.hash().toString()));
+                } else {
+                    Futures.addCallback(Futures.transform(resultSet.fetchMoreResults(),
+                            new Function<Void, ResultSet>() {
+                                public ResultSet apply(Void fetched) {
+                                    return resultSet;
+                                }
+                            }), this);
+                }
+            }
+
+            public void onFailure(Throwable throwable) {
+                result.setError(throwable);
+            }
+        });
+
         return result;
     }
 
@@ -175,9 +774,35 @@ public class CassandraDAO<T> {
      */
     public Result<List<T>> get(T model) {
         Result<List<T>> result = new Result<List<T>>();
+        final Result<List<T>> cachedResult;
+
+        List<Clause> clauses;
 
         try {
-            result = getWhere(cqlUtils.buildClause(orderedPrimaryKey, model));
+            clauses = cqlUtils.buildClause(orderedPrimaryKey, model);
+
+            if (entityCache != null && clauses.size() == orderedPrimaryKey.size()) {
+                cachedResult = result;
+                // The cache holds single rows, returned here as a list of at most one
+                Futures.addCallback(entityCache.get(bindPreparedStatement(selectPrefix, clauses, null,
+                        CQLUtils.QueryType.READ)).getMappedFuture(), new FutureCallback<T>() {
+                    public void onSuccess(T row) {
+                        List<T> rows = new ArrayList<T>(1);
+
+                        if (row != null) {
+                            rows.add(row);
+                        }
+                        cachedResult.setUnmappedResultSet(null);
+                        cachedResult.setMappedResult(rows);
+                    }
+
+                    public void onFailure(Throwable throwable) {
+                        cachedResult.setError(throwable);
+                    }
+                });
+            } else {
+                result = getWhere(clauses);
+            }
         } catch (ResultAccessException e) {
             result.setError(e);
         }
@@ -192,15 +817,125 @@ public class CassandraDAO<T> {
      * <p>
      * fields annotated with @Secure will be encrypted prior to write
      * <p>
+     * When write-behind is enabled the write is buffered, and the Result completes, without a ResultSet, once it
+     * has been flushed.
+     * <p>
      * @return the Result containing the ResultSet and, in the case of an error,
      * the Throwable
      */
     public Result putOne(Object model) {
         CryptUtil.encrypt(model);
         Statement statement = mapper.saveQuery(model);
-        statement.setConsistencyLevel(cqlUtils.getConsistencyLevel(CQLUtils.QueryType.WRITE));
+        setQueryOptions(statement, CQLUtils.QueryType.WRITE);
+
+        Result result;
+        WriteBehindBuffer buffer;
+
+        if (keyFilter != null) {
+            keyFilter.put(CQLUtils.getPrimaryKeyBytes(statement, orderedPrimaryKey));
+        }
+        if ((buffer = writeBehindBuffer) == null || (result = buffer.buffer(statement)) == null) {
+            result = executeStatement(statement, false, false, Operation.PUT_ONE);
+        }
+        if (entityCache != null) {
+            entityCache.invalidateAfter(result.getMappedFuture(), statement);
+        }
+        return result;
+    }
+
+    /**
+     * Turns on write-behind for putOne.
+     * <p>
+     * Writes are buffered for up to flushIntervalMillis, writes to the same PRIMARY KEY are coalesced (the last one
+     * wins) and the buffer is flushed as per-partition UNLOGGED batches. Reads do not see buffered writes. Deletes
+     * through this DAO first flush the buffer so they are applied after earlier writes. Metrics are registered as a
+     * WriteBehindMXBean. Calling it again replaces the buffer, and the writes of the previous one are flushed.
+     *
+     * @param flushIntervalMillis the maximum time a write stays buffered
+     * @param maxPending          the number of buffered keys that triggers an early flush
+     */
+    public synchronized void enableWriteBehind(long flushIntervalMillis, int maxPending) {
+        WriteBehindBuffer previous = writeBehindBuffer;
+
+        writeBehindBuffer = new WriteBehindBuffer(partitionBatchWriter, orderedPrimaryKey, flushIntervalMillis,
+                maxPending, putManyBatchSize, putManyMaxInFlight);
+        MXBeansManager.registerMXBean(writeBehindBuffer, "WriteBehind", keyspaceName, tableName);
+
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Flushes the writes buffered by write-behind.
+     *
+     * @return a future completed once every buffered write has been acknowledged or has failed
+     */
+    public ListenableFuture<?> flushWriteBehind() {
+        if (writeBehindBuffer == null) {
+            return Futures.immediateFuture(null);
+        }
+        return writeBehindBuffer.flushAll();
+    }
+
+    /**
+     * Stops write-behind, flushing the buffered writes and waiting for them. Later writes are sent directly.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     */
+    public void drainWriteBehind(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+            TimeoutException {
+        if (writeBehindBuffer != null) {
+            writeBehindBuffer.drain(timeout, unit);
+        }
+    }
+
+    /**
+     * @return the number of keys buffered by write-behind
+     */
+    public int getWriteBehindQueueDepth() {
+        return writeBehindBuffer == null ? 0 : writeBehindBuffer.getQueueDepth();
+    }
+
+    /**
+     * Inserts/updates many records into Cassandra
+     * <p>
+     * The records are grouped by partition into UNLOGGED batches of at most putManyBatchSize statements, and at most
+     * putManyMaxInFlight batches are sent at once. Each batch succeeds or fails on its own.
+     * <p>
+     * fields annotated with @Secure will be encrypted prior to write
+     * <p>
+     *
+     * @param models the models to be written into Cassandra
+     * @return the Result containing the models that could not be written, with the Throwable that failed each of them,
+     * keyed by identity. The map is empty when every model was written.
+     */
+    public Result<Map<T, Throwable>> putMany(Collection<T> models) {
+        List<T> rows = new ArrayList<T>(models.size());
+        List<Statement> statements = new ArrayList<Statement>(models.size());
+
+        for (T model : models) {
+            CryptUtil.encrypt(model);
+            rows.add(model);
+            statements.add(mapper.saveQuery(model));
+            statements.get(statements.size() - 1).setIdempotent(idempotentWrites);
 
-        return executeStatement(statement, false, false);
+            if (keyFilter != null) {
+                keyFilter.put(CQLUtils.getPrimaryKeyBytes(statements.get(statements.size() - 1), orderedPrimaryKey));
+            }
+        }
+
+        Result<Map<T, Throwable>> result = partitionBatchWriter.write(rows, statements,
+                cqlUtils.getConsistencyLevel(CQLUtils.QueryType.WRITE), putManyBatchSize, putManyMaxInFlight,
+                Operation.PUT_MANY);
+
+        if (entityCache != null) {
+            for (Statement statement : statements) {
+                entityCache.invalidateAfter(result.getMappedFuture(), statement);
+            }
+        }
+        return result;
     }
 
     /**
@@ -216,11 +951,12 @@ public class CassandraDAO<T> {
     @Deprecated
     public Result putAll(Object... datum) {
         BatchStatement batchStatement = new BatchStatement();
+        Mapper dataMapper;
         Statement statement;
 
         for (Object data : datum) {
-            mapper = mappingManager.mapper(data.getClass());
-            statement = mapper.saveQuery(data);
+            dataMapper = mappingManager.mapper(data.getClass());
+            statement = dataMapper.saveQuery(data);
             batchStatement.add(statement);
         }
 
@@ -240,9 +976,13 @@ public class CassandraDAO<T> {
      */
     public Result<T> deleteOne(Object... primaryKey) {
         Statement statement = mapper.deleteQuery(primaryKey);
-        statement.setConsistencyLevel(cqlUtils.getConsistencyLevel(CQLUtils.QueryType.WRITE));
+        setQueryOptions(statement, CQLUtils.QueryType.WRITE);
+        Result result = executeAfterWriteBehind(statement, Operation.DELETE_ONE);
 
-        return executeStatement(statement, false, false);
+        if (entityCache != null) {
+            entityCache.invalidateAfter(result.getMappedFuture(), statement);
+        }
+        return result;
     }
 
     /**
@@ -290,17 +1030,15 @@ public class CassandraDAO<T> {
      * @return the result
      */
     public Result<List<T>> deleteWhere(List<Clause> whereConditions) {
-        Delete delete = QueryBuilder.delete().from(keyspaceName, tableName);
         Result<List<T>> result = new Result<List<T>>();
 
         try {
-            Delete.Where where = delete.where();
+            BoundStatement boundStatement = bindPreparedStatement(deletePrefix, whereConditions, null, CQLUtils.QueryType.WRITE);
+            result = executeAfterWriteBehind(boundStatement, Operation.DELETE_WHERE);
 
-            for (Clause condition : whereConditions) {
-                where.and(condition);
+            if (entityCache != null) {
+                entityCache.invalidateAllAfter(result.getMappedFuture());
             }
-            BoundStatement boundStatement = bindPreparedStatement(delete, whereConditions);
-            result = executeStatement(boundStatement, false, false);
         } catch (ResultAccessException e) {
             result.setError(e);
         }
@@ -335,17 +1073,12 @@ public class CassandraDAO<T> {
      * @return the count
      */
     public Result<Long> getCount(List<Clause> whereConditions, Integer limit) {
-        Select select = QueryBuilder.select().countAll().from(keyspaceName, tableName).limit(limit);
         final Result result = new Result();
         ResultSetFuture future;
 
         try {
-            Select.Where where = select.where();
-
-            for(Clause clause : whereConditions) {
-                where.and(clause);
-            }
-            future = session.executeAsync(bindPreparedStatement(select, whereConditions));
+            future = executeAsync(bindPreparedStatement(countPrefix, whereConditions, limit, CQLUtils.QueryType.READ),
+                    Operation.GET_COUNT);
 
             Futures.addCallback(future, new FutureCallback() {
                 public void onSuccess(Object obj) {
@@ -378,8 +1111,18 @@ public class CassandraDAO<T> {
 
         for (Statement statement : batch.getStatements()) {
             statement.setConsistencyLevel(consistencyLevel);
+
+            if (keyFilter != null) {
+                keyFilter.put(CQLUtils.getPrimaryKeyBytes(statement, orderedPrimaryKey));
+            }
+        }
+        batch.setConsistencyLevel(consistencyLevel);
+        Result result = executeStatement(batch, false, false, Operation.EXECUTE_BATCH);
+
+        if (entityCache != null) {
+            entityCache.invalidateAllAfter(result.getMappedFuture());
         }
-        return executeStatement(batch, false, false);
+        return result;
     }
 
     /**
@@ -388,21 +1131,96 @@ public class CassandraDAO<T> {
      * @param statement   the statement
      * @param asListIfOne flag to return as a list even if there is only one record
      * @param mapResult   flag to turn "ORM" mapping on or off
+     * @param operation   the operation the statement is timed as
      * @return the result
      */
-    private Result executeStatement(Statement statement, boolean asListIfOne, boolean mapResult) {
+    private Result executeStatement(Statement statement, boolean asListIfOne, boolean mapResult, Operation operation) {
         Result result = new Result();
-        ResultSetFuture future = session.executeAsync(statement);
+        ResultSetFuture future = executeAsync(statement, operation);
 
         addCallBack(result, future, asListIfOne, mapResult);
 
         return result;
     }
 
+    /**
+     * Execute statement, mapping the rows lazily as they are iterated.
+     *
+     * @param statement the statement
+     * @param fetchSize the number of rows to fetch per page
+     * @param operation the operation the statement is timed as
+     * @return the result
+     */
+    private Result<PagedIterator<T>> executeStatement(Statement statement, final int fetchSize, Operation operation) {
+        final Result<PagedIterator<T>> result = new Result<PagedIterator<T>>();
+        ResultSetFuture future;
+
+        statement.setFetchSize(fetchSize);
+        future = executeAsync(statement, operation);
+
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            public void onSuccess(ResultSet resultSet) {
+                SpeculativeExecutions.record(resultSet.getExecutionInfo());
+                Iterator<T> mappedIterator = Iterators.transform(mapRows(resultSet), decryptRow);
+
+                result.setUnmappedResultSet(resultSet);
+                result.setMappedResult(new PagedIterator<T>(resultSet, mappedIterator, fetchSize));
+            }
+
+            public void onFailure(Throwable throwable) {
+                result.setError(throwable);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Executes a write once the writes buffered by write-behind have been flushed, so it is applied after them.
+     *
+     * @param statement the statement
+     * @param operation the operation the statement is timed as
+     * @return the result
+     */
+    private Result executeAfterWriteBehind(final Statement statement, final Operation operation) {
+        final Result result;
+
+        if (writeBehindBuffer == null) {
+            return executeStatement(statement, false, false, operation);
+        }
+        result = new Result();
+        Futures.addCallback(writeBehindBuffer.flushAll(), new FutureCallback<Object>() {
+            public void onSuccess(Object obj) {
+                addCallBack(result, executeAsync(statement, operation), false, false);
+            }
+
+            public void onFailure(Throwable throwable) {
+                addCallBack(result, executeAsync(statement, operation), false, false);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Executes a statement, recording its latency, the rows of its first page or its error as the given operation in
+     * the LatencyMXBean and logging it if it is slow.
+     */
+    private ResultSetFuture executeAsync(Statement statement, Operation operation) {
+        long start = System.nanoTime();
+        ResultSetFuture future = session.executeAsync(statement);
+
+        latencies.record(operation, start, future);
+        SlowQueryLog.watch(operation.toString(), keyspaceName, tableName, secureColumns, statement, start, future);
+
+        return future;
+    }
+
     private void addCallBack(final Result result, ListenableFuture future, final Boolean asListIfOne, final boolean mapResult) {
         Futures.addCallback(future, new FutureCallback() {
             public void onSuccess(Object obj) {
                 if (obj instanceof ResultSet) {
+                    SpeculativeExecutions.record(((ResultSet) obj).getExecutionInfo());
                     result.setUnmappedResultSet((ResultSet) obj);
 
                     if (mapResult) {
@@ -419,48 +1237,154 @@ public class CassandraDAO<T> {
         });
     }
 
-    private void mapResult(Result result, Object obj, Boolean asListIfOne) {
-        com.datastax.driver.mapping.Result results = mapper.map((ResultSet) obj);
-        List list = results.all();
+    private void mapResult(final Result result, Object obj, final Boolean asListIfOne) {
+        List<T> rows = Lists.newArrayList(mapRows((ResultSet) obj));
 
-        for(int i = 0; i < list.size(); i++) {
-            CryptUtil.decrypt(list.get(i));
-        }
+        Futures.addCallback(rowDecryptor.decrypt(rows, parallelDecryptionThreshold), new FutureCallback<List<T>>() {
+            public void onSuccess(List<T> list) {
+                if (!asListIfOne && list.size() == 1) {
+                    result.setMappedResult(list.get(0));
+                } else if (!list.isEmpty()) {
+                    result.setMappedResult(list);
+                } else {
+                    result.setMappedResult(null);
+                }
+            }
 
-        if (!asListIfOne && list.size() == 1) {
-            result.setMappedResult(list.get(0));
-        } else if (!list.isEmpty()) {
-            result.setMappedResult(list);
-        } else {
-            result.setMappedResult(null);
-        }
+            public void onFailure(Throwable throwable) {
+                result.setError(throwable);
+            }
+        });
     }
 
-    private BoundStatement bindPreparedStatement(BuiltStatement statement, List<Clause> whereConditions) throws ResultAccessException {
-        if (whereConditions != null && !whereConditions.isEmpty()) {
-            BoundStatement boundPreparedStatement;
-            Matcher preparedQueryMatcher = preparedQueryPattern.matcher(statement.getQueryString());
-            String preparedQueryString = preparedQueryMatcher.replaceAll("$1 \\? $2");
-            int hash = preparedQueryString.hashCode();
-            PreparedStatement preparedQuery;
-            List values = new ArrayList();
+    /**
+     * Maps the rows of a ResultSet to the model type, with the generated ModelAccessor if there is one and the driver
+     * mapper otherwise. Further pages are fetched as the iterator is consumed.
+     */
+    private Iterator<T> mapRows(ResultSet resultSet) {
+        final ProjectionMapper<T> projectionMapper = this.projectionMapper;
 
-            synchronized (preparedQueries) {
-                if ((preparedQuery = preparedQueries.get(hash)) == null) {
-                    preparedQuery = session.prepare(preparedQueryString);
-                    preparedQueries.put(hash, preparedQuery);
+        if (modelAccessor == null) {
+            if (projectionMapper == null ||
+                    resultSet.getColumnDefinitions().size() >= projectionMapper.getColumnCount()) {
+                return mapper.map(resultSet).iterator();
+            }
+            return Iterators.transform(resultSet.iterator(), new Function<Row, T>() {
+                public T apply(Row row) {
+                    return projectionMapper.map(row);
                 }
+            });
+        }
+        return Iterators.transform(resultSet.iterator(), new Function<Row, T>() {
+            public T apply(Row row) {
+                return modelAccessor.map(row);
+            }
+        });
+    }
+
+    /**
+     * Gets the prefix of a select of some columns. Models without a generated accessor need a ProjectionMapper to
+     * map the rows, which is created with the first projection.
+     * <p>
+     * Each column must be one of the table, named as in CQL or as its case sensitive name. The columns are quoted and
+     * selected in the order of the table, so a set of columns is prepared once however the caller spells it.
+     *
+     * @param columns the columns, all of them if null or empty
+     * @throws ResultAccessException if a column is not one of the table
+     */
+    private String getSelectPrefix(List<String> columns) throws ResultAccessException {
+        TableMetadata table;
+        Set<ColumnMetadata> selected;
+        ColumnMetadata column;
+        StringBuilder prefix;
+
+        if (columns == null || columns.isEmpty()) {
+            return selectPrefix;
+        }
+        table = getTableMetadata();
+        selected = new HashSet<ColumnMetadata>();
+
+        for (String name : columns) {
+            if ((column = table.getColumn(name)) == null && (column = table.getColumn(Metadata.quote(name))) == null) {
+                throw new ResultAccessException("Unknown column " + name + " in table " + keyspaceName + "." +
+                        tableName);
             }
-            boundPreparedStatement = new BoundStatement(preparedQuery);
+            selected.add(column);
+        }
+        if (modelAccessor == null && projectionMapper == null) {
+            projectionMapper = new ProjectionMapper<T>(modelClass,
+                    session.getCluster().getConfiguration().getProtocolOptions().getProtocolVersionEnum());
+        }
+        prefix = new StringBuilder("SELECT ");
 
-            for(Clause clause: whereConditions) {
-                values.add(ClauseExtractor.getValues(clause));
+        for (ColumnMetadata tableColumn : table.getColumns()) {
+            if (selected.contains(tableColumn)) {
+                if (prefix.length() > "SELECT ".length()) {
+                    prefix.append(", ");
+                }
+                prefix.append(Metadata.quote(tableColumn.getName()));
             }
-            boundPreparedStatement.bind(values.toArray());
+        }
 
-            return boundPreparedStatement;
-        } else {
-            throw new ResultAccessException("Not a valid conditional query");
+        return prefix.append(" FROM ").append(keyspaceName).append('.').append(tableName).append(" WHERE ").toString();
+    }
+
+    private TableMetadata getTableMetadata() throws ResultAccessException {
+        KeyspaceMetadata keyspace = session.getCluster().getMetadata().getKeyspace(keyspaceName);
+        TableMetadata table = keyspace == null ? null : keyspace.getTable(tableName);
+
+        if (table == null) {
+            throw new ResultAccessException("No metadata for table " + keyspaceName + "." + tableName);
         }
+        return table;
+    }
+
+    /**
+     * Gets the prefix of the select of a version, which is built from the cluster metadata with the first version:
+     * the PRIMARY KEY and collection columns, which have no write time, then the write time of every other column,
+     * from index versionFirstWriteTime.
+     */
+    private String getVersionPrefix() throws ResultAccessException {
+        TableMetadata table;
+        StringBuilder prefix;
+        StringBuilder writeTimes = new StringBuilder();
+        int firstWriteTime = 0;
+
+        if (versionPrefix != null) {
+            return versionPrefix;
+        }
+        table = getTableMetadata();
+        prefix = new StringBuilder("SELECT ");
+
+        for (ColumnMetadata column : table.getColumns()) {
+            if (table.getPrimaryKey().contains(column) || column.getType().isCollection()) {
+                prefix.append(firstWriteTime++ == 0 ? "" : ", ").append(Metadata.quote(column.getName()));
+            } else {
+                writeTimes.append(", writetime(").append(Metadata.quote(column.getName())).append(')');
+            }
+        }
+        // Set before the prefix it belongs to is published
+        versionFirstWriteTime = firstWriteTime;
+        versionPrefix = prefix.append(writeTimes).append(" FROM ").append(keyspaceName).append('.').append(tableName)
+                .append(" WHERE ").toString();
+
+        return versionPrefix;
+    }
+
+    /**
+     * Sets the consistency level of a statement and marks reads idempotent, so that they may be executed
+     * speculatively.
+     */
+    private void setQueryOptions(Statement statement, CQLUtils.QueryType queryType) {
+        statement.setConsistencyLevel(cqlUtils.getConsistencyLevel(queryType));
+        statement.setIdempotent(queryType == CQLUtils.QueryType.READ || idempotentWrites);
+    }
+
+    private BoundStatement bindPreparedStatement(String prefix, List<Clause> whereConditions, Integer limit,
+                                                 CQLUtils.QueryType queryType) throws ResultAccessException {
+        BoundStatement boundStatement = PreparedStatementCache.bind(session, prefix, whereConditions, limit);
+        setQueryOptions(boundStatement, queryType);
+
+        return boundStatement;
     }
 }
@@ -0,0 +1,22 @@
+package com.comcast.artemis.cassandra.dao;
+
+/**
+ * When the fields annotated with @Secure are decrypted in the rows a DAO returns as a list or single object.
+ * Iterators returned by getRowIterator, getTableIterator and getWhereIterator always decrypt each row as it is returned.
+ */
+public enum DecryptionMode {
+    /**
+     * Every row is decrypted on the driver's thread before the Result completes.
+     */
+    EAGER,
+    /**
+     * Each row is decrypted the first time it is read from the returned list, so rows never read are never
+     * decrypted.
+     */
+    LAZY,
+    /**
+     * Lists of at least parallelDecryptionThreshold rows are decrypted in chunks on a shared, bounded pool before
+     * the Result completes. Smaller results are decrypted eagerly.
+     */
+    PARALLEL
+}
@@ -0,0 +1,212 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.data.Result;
+import com.comcast.artemis.jmx.EntityCacheMXBean;
+import com.datastax.driver.core.Statement;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the rows of one DAO by the serialized PRIMARY KEY of the statement reading them.
+ * <p>
+ * The cache holds the future of each read, so concurrent misses on a key share a single query and failed reads are
+ * not cached. A row read after refreshAfterWriteMillis is reloaded in the background while the cached row keeps being
+ * served. Rows written or deleted through the DAO are invalidated when the write is sent and again once it completes.
+ */
+class EntityCache<T> implements EntityCacheMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCache.class);
+    private final Cache<List<ByteBuffer>, CachedRow<T>> cache;
+    private final AsyncFunction<Statement, T> loader;
+    private final List<String> orderedPrimaryKey;
+    private final long refreshAfterWriteNanos;
+    private final AtomicLong refreshCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    EntityCache(AsyncFunction<Statement, T> loader, List<String> orderedPrimaryKey, long maximumSize,
+                long expireAfterWriteMillis, long refreshAfterWriteMillis) {
+        this.loader = loader;
+        this.orderedPrimaryKey = orderedPrimaryKey;
+        this.refreshAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(refreshAfterWriteMillis);
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Reads a row through the cache.
+     *
+     * @param statement the statement reading a single row by its PRIMARY KEY
+     * @return the Result containing the row, or null when there is none. The ResultSet is always null.
+     */
+    Result<T> get(final Statement statement) {
+        final Result<T> result = new Result<T>();
+        final List<ByteBuffer> key = CQLUtils.getPrimaryKeyBytes(statement, orderedPrimaryKey);
+        final CachedRow<T> cachedRow;
+
+        try {
+            if (key == null) {
+                cachedRow = new CachedRow<T>(statement, loader.apply(statement));
+            } else {
+                cachedRow = cache.get(key, new Callable<CachedRow<T>>() {
+                    public CachedRow<T> call() throws Exception {
+                        return new CachedRow<T>(statement, loader.apply(statement));
+                    }
+                });
+            }
+        } catch (ExecutionException e) {
+            result.setError(e.getCause());
+            return result;
+        } catch (UncheckedExecutionException e) {
+            result.setError(e.getCause());
+            return result;
+        } catch (Exception e) {
+            result.setError(e);
+            return result;
+        }
+
+        Futures.addCallback(cachedRow.future, new FutureCallback<T>() {
+            public void onSuccess(T row) {
+                result.setUnmappedResultSet(null);
+                result.setMappedResult(row);
+
+                if (key != null) {
+                    refreshIfStale(key, cachedRow);
+                }
+            }
+
+            public void onFailure(Throwable throwable) {
+                if (key != null) {
+                    cache.asMap().remove(key, cachedRow);
+                }
+                result.setError(throwable);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Invalidates the row written by a statement now and once the write completes, so a read racing the write can
+     * not cache the row it replaces.
+     *
+     * @param write     the future of the write
+     * @param statement the statement writing a single row
+     */
+    void invalidateAfter(ListenableFuture<?> write, Statement statement) {
+        final List<ByteBuffer> key = CQLUtils.getPrimaryKeyBytes(statement, orderedPrimaryKey);
+
+        if (key == null) {
+            invalidateAllAfter(write);
+            return;
+        }
+        invalidationCount.incrementAndGet();
+        cache.invalidate(key);
+        write.addListener(new Runnable() {
+            public void run() {
+                cache.invalidate(key);
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    /**
+     * Invalidates every row now and once a write touching an unknown set of rows completes.
+     *
+     * @param write the future of the write
+     */
+    void invalidateAllAfter(ListenableFuture<?> write) {
+        invalidateAll();
+        write.addListener(new Runnable() {
+            public void run() {
+                cache.invalidateAll();
+            }
+        }, MoreExecutors.sameThreadExecutor());
+    }
+
+    private void refreshIfStale(final List<ByteBuffer> key, final CachedRow<T> cachedRow) {
+        final ListenableFuture<T> future;
+
+        if (refreshAfterWriteNanos <= 0 || System.nanoTime() - cachedRow.loadedNanos < refreshAfterWriteNanos ||
+                !cachedRow.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            future = loader.apply(cachedRow.statement);
+        } catch (Exception e) {
+            LOG.debug("Could not refresh cached row", e);
+            cachedRow.refreshing.set(false);
+            return;
+        }
+
+        Futures.addCallback(future, new FutureCallback<T>() {
+            public void onSuccess(T row) {
+                // Does nothing if the row was invalidated while it was being reloaded
+                if (cache.asMap().replace(key, cachedRow, new CachedRow<T>(cachedRow.statement, future))) {
+                    refreshCount.incrementAndGet();
+                }
+            }
+
+            public void onFailure(Throwable throwable) {
+                LOG.debug("Could not refresh cached row", throwable);
+                cachedRow.refreshing.set(false);
+            }
+        });
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public double getHitRate() {
+        return cache.stats().hitRate();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    public long getRefreshCount() {
+        return refreshCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    public void invalidateAll() {
+        invalidationCount.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static class CachedRow<T> {
+        private final Statement statement;
+        private final ListenableFuture<T> future;
+        private final long loadedNanos = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        CachedRow(Statement statement, ListenableFuture<T> future) {
+            this.statement = statement;
+            this.future = future;
+        }
+    }
+}
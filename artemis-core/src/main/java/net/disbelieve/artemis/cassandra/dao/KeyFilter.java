@@ -0,0 +1,260 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.ConsistencyLevels;
+import com.comcast.artemis.cassandra.data.Result;
+import com.comcast.artemis.jmx.KeyFilterMXBean;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.google.common.base.Function;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnel;
+import com.google.common.hash.PrimitiveSink;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Bloom filter of the PRIMARY KEYs of one table, used to answer getOne without a query when a key is definitely
+ * absent.
+ * <p>
+ * The filter is built by a token range scan of the key columns and every key written through the DAO is added to it.
+ * Keys written by anything else are unknown until the next rebuild, so the filter is only correct for tables written
+ * through this DAO. Deleted keys stay in the filter until the next rebuild, which only costs a query. Until the first
+ * build completes every key is reported as possibly present.
+ * <p>
+ * BloomFilter is not thread safe, so it is only read and updated while holding this object's lock.
+ */
+class KeyFilter implements KeyFilterMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(KeyFilter.class);
+    private static final int SCAN_PARALLELISM = 4;
+    private static final int SCAN_FETCH_SIZE = 5000;
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("artemis-key-filter-%d").build());
+    private final TokenRangeScan<List<ByteBuffer>> keyScan;
+    private final long expectedKeys;
+    private final double falsePositiveRate;
+    private final AtomicBoolean building = new AtomicBoolean();
+    private final AtomicLong avoidedReads = new AtomicLong();
+    private final AtomicLong passedReads = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private BloomFilter<List<ByteBuffer>> filter;
+    private BloomFilter<List<ByteBuffer>> nextFilter;
+    private long keyCount;
+    private long nextKeyCount;
+    private volatile long lastBuildMillis;
+
+    /**
+     * @param session               the session
+     * @param table                 the keyspace and table, as in "keyspace.table"
+     * @param orderedPartitionKey   the columns of the partition key
+     * @param orderedPrimaryKey     the columns of the primary key
+     * @param expectedKeys          the number of keys the filter is sized for at least
+     * @param falsePositiveRate     the rate at which absent keys are reported as possibly present, when the table
+     *                              holds at most the expected number of keys
+     * @param rebuildIntervalMillis the time between rebuilds, 0 to only build once
+     */
+    KeyFilter(Session session, String table, List<String> orderedPartitionKey, final List<String> orderedPrimaryKey,
+              long expectedKeys, double falsePositiveRate, long rebuildIntervalMillis) {
+        StringBuilder selectPrefix = new StringBuilder("SELECT ");
+
+        for (int i = 0; i < orderedPrimaryKey.size(); i++) {
+            selectPrefix.append(i == 0 ? "" : ", ").append(orderedPrimaryKey.get(i));
+        }
+        selectPrefix.append(" FROM ").append(table).append(" WHERE ");
+
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.keyScan = new TokenRangeScan<List<ByteBuffer>>(session, selectPrefix.toString(), orderedPartitionKey,
+                new Function<ResultSet, Iterator<List<ByteBuffer>>>() {
+                    public Iterator<List<ByteBuffer>> apply(ResultSet resultSet) {
+                        final Iterator<Row> rows = resultSet.iterator();
+
+                        return new Iterator<List<ByteBuffer>>() {
+                            public boolean hasNext() {
+                                return rows.hasNext();
+                            }
+
+                            public List<ByteBuffer> next() {
+                                Row row = rows.next();
+                                List<ByteBuffer> key = new ArrayList<ByteBuffer>(orderedPrimaryKey.size());
+
+                                for (String column : orderedPrimaryKey) {
+                                    key.add(row.getBytesUnsafe(column));
+                                }
+                                return key;
+                            }
+
+                            public void remove() {
+                                throw new UnsupportedOperationException();
+                            }
+                        };
+                    }
+                });
+
+        if (rebuildIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(new Runnable() {
+                public void run() {
+                    rebuild();
+                }
+            }, 0, rebuildIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * @param key the serialized primary key, or null if it is not known
+     * @return false if the key is definitely absent from the table
+     */
+    boolean mightContain(List<ByteBuffer> key) {
+        boolean mightContain;
+
+        synchronized (this) {
+            mightContain = key == null || filter == null || filter.mightContain(key);
+        }
+        if (mightContain) {
+            passedReads.incrementAndGet();
+        } else {
+            avoidedReads.incrementAndGet();
+        }
+        return mightContain;
+    }
+
+    /**
+     * Adds a key being written. Must be called before the write is sent, so a read following the write finds it.
+     *
+     * @param key the serialized primary key, ignored if null
+     */
+    synchronized void put(List<ByteBuffer> key) {
+        if (key == null) {
+            return;
+        }
+        if (filter != null && filter.put(key)) {
+            keyCount++;
+        }
+        if (nextFilter != null && nextFilter.put(key)) {
+            nextKeyCount++;
+        }
+    }
+
+    /**
+     * Records a key reported as possibly present that was not found.
+     */
+    void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    /**
+     * Rebuilds the filter from a scan of the table, unless a rebuild is already running. The current filter keeps
+     * being used, and keys written during the scan are added to both filters, until the scan completes.
+     */
+    public void rebuild() {
+        final long start = System.currentTimeMillis();
+        Result<Long> result;
+
+        if (!building.compareAndSet(false, true)) {
+            return;
+        }
+        synchronized (this) {
+            // Leave room for growth since the last build, a Bloom filter holding more keys than it was sized for
+            // reports more false positives
+            nextFilter = BloomFilter.create(PrimaryKeyFunnel.INSTANCE,
+                    (int) Math.min(Integer.MAX_VALUE, Math.max(expectedKeys, keyCount * 2)), falsePositiveRate);
+            nextKeyCount = 0;
+        }
+
+        result = keyScan.execute(SCAN_PARALLELISM, SCAN_FETCH_SIZE, null,
+                ConsistencyLevels.getReadConsistencyLevel(), new RowCallback<List<ByteBuffer>>() {
+                    public void onRow(List<ByteBuffer> key) {
+                        synchronized (KeyFilter.this) {
+                            if (nextFilter.put(key)) {
+                                nextKeyCount++;
+                            }
+                        }
+                    }
+                });
+
+        Futures.addCallback(result.getMappedFuture(), new FutureCallback<Long>() {
+            public void onSuccess(Long count) {
+                synchronized (KeyFilter.this) {
+                    filter = nextFilter;
+                    keyCount = nextKeyCount;
+                    nextFilter = null;
+                }
+                lastBuildMillis = System.currentTimeMillis() - start;
+                building.set(false);
+            }
+
+            public void onFailure(Throwable throwable) {
+                LOG.error("Could not build key filter", throwable);
+
+                synchronized (KeyFilter.this) {
+                    nextFilter = null;
+                }
+                building.set(false);
+            }
+        });
+    }
+
+    public long getAvoidedReads() {
+        return avoidedReads.get();
+    }
+
+    public long getPassedReads() {
+        return passedReads.get();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.get();
+    }
+
+    public synchronized long getKeyCount() {
+        return keyCount;
+    }
+
+    public synchronized double getExpectedFalsePositiveRate() {
+        return filter == null ? 1 : filter.expectedFpp();
+    }
+
+    public long getLastBuildMillis() {
+        return lastBuildMillis;
+    }
+
+    public synchronized boolean isBuilt() {
+        return filter != null;
+    }
+
+    public boolean isBuilding() {
+        return building.get();
+    }
+
+    private enum PrimaryKeyFunnel implements Funnel<List<ByteBuffer>> {
+        INSTANCE;
+
+        public void funnel(List<ByteBuffer> key, PrimitiveSink into) {
+            for (ByteBuffer column : key) {
+                if (column == null) {
+                    into.putInt(-1);
+                } else {
+                    byte[] bytes = new byte[column.remaining()];
+
+                    column.duplicate().get(bytes);
+                    into.putInt(bytes.length).putBytes(bytes);
+                }
+            }
+        }
+    }
+}
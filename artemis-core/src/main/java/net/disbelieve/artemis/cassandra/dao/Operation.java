@@ -0,0 +1,31 @@
+package com.comcast.artemis.cassandra.dao;
+
+/**
+ * The operations of a DAO whose queries are timed.
+ */
+enum Operation {
+    GET_ONE("getOne"),
+    GET_ROW("getRow"),
+    GET_WHERE("getWhere"),
+    GET_TABLE("getTable"),
+    GET_ITERATOR("getIterator"),
+    GET_PAGE("getPage"),
+    GET_VERSION("getVersion"),
+    GET_COUNT("getCount"),
+    PUT_ONE("putOne"),
+    PUT_MANY("putMany"),
+    DELETE_ONE("deleteOne"),
+    DELETE_WHERE("deleteWhere"),
+    EXECUTE_BATCH("executeBatch");
+
+    private final String s;
+
+    Operation(String s) {
+        this.s = s;
+    }
+
+    @Override
+    public String toString() {
+        return s;
+    }
+}
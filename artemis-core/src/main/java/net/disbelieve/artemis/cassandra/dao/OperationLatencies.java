@@ -0,0 +1,160 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.jmx.LatencyMXBean;
+import com.comcast.artemis.jmx.OperationLatency;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.exceptions.QueryTimeoutException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times the queries of one DAO, per operation.
+ * <p>
+ * Latencies are recorded wait-free into an HdrHistogram Recorder and only copied into the histogram of the interval
+ * when the statistics are read, so recording costs a few atomic increments on the driver's I/O thread.
+ */
+class OperationLatencies implements LatencyMXBean {
+    // Slower queries are recorded as taking this long
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private final Map<Operation, OperationRecorder> recorders =
+            new EnumMap<Operation, OperationRecorder>(Operation.class);
+    private volatile long intervalStartMillis = System.currentTimeMillis();
+
+    OperationLatencies() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new OperationRecorder());
+        }
+    }
+
+    /**
+     * Records the latency, the rows of the first page or the error of a query once it completes. It must be called
+     * before other callbacks iterate the ResultSet.
+     *
+     * @param operation  the operation the query was executed for
+     * @param startNanos the System.nanoTime() at which the query was executed
+     * @param future     the future of the query
+     */
+    void record(Operation operation, final long startNanos, ListenableFuture<ResultSet> future) {
+        final OperationRecorder recorder = recorders.get(operation);
+
+        Futures.addCallback(future, new FutureCallback<ResultSet>() {
+            public void onSuccess(ResultSet resultSet) {
+                recorder.record(startNanos, resultSet == null ? 0 : resultSet.getAvailableWithoutFetching());
+            }
+
+            public void onFailure(Throwable throwable) {
+                recorder.recordError(startNanos, isTimeout(throwable));
+            }
+        });
+    }
+
+    @Override
+    public synchronized List<OperationLatency> getOperations() {
+        List<OperationLatency> operations = new ArrayList<OperationLatency>();
+        double seconds = Math.max(System.currentTimeMillis() - intervalStartMillis, 1) / 1000d;
+        Histogram histogram;
+
+        for (Map.Entry<Operation, OperationRecorder> entry : recorders.entrySet()) {
+            histogram = entry.getValue().updateHistogram();
+
+            if (histogram.getTotalCount() > 0) {
+                operations.add(new OperationLatency(entry.getKey().toString(), histogram.getTotalCount(),
+                        entry.getValue().errors.get(), entry.getValue().timeouts.get(), entry.getValue().firstPageRows.get(),
+                        histogram.getTotalCount() / seconds, histogram.getMean(),
+                        histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                        histogram.getValueAtPercentile(99.9), histogram.getMaxValue()));
+            }
+        }
+
+        return operations;
+    }
+
+    @Override
+    public long getIntervalStartMillis() {
+        return intervalStartMillis;
+    }
+
+    @Override
+    public synchronized void resetInterval() {
+        for (OperationRecorder recorder : recorders.values()) {
+            recorder.reset();
+        }
+        intervalStartMillis = System.currentTimeMillis();
+    }
+
+    private static boolean isTimeout(Throwable throwable) {
+        if (throwable instanceof QueryTimeoutException) {
+            return true;
+        }
+        // The driver gives up on a query once it has timed out on every host it tried
+        if (throwable instanceof NoHostAvailableException) {
+            Map<?, Throwable> errors = ((NoHostAvailableException) throwable).getErrors();
+
+            for (Throwable error : errors.values()) {
+                if (!error.getClass().getSimpleName().equals("OperationTimedOutException")) {
+                    return false;
+                }
+            }
+            return !errors.isEmpty();
+        }
+        return false;
+    }
+
+    private static class OperationRecorder {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        private final AtomicLong errors = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong firstPageRows = new AtomicLong();
+        private Histogram intervalHistogram;
+
+        void record(long startNanos, int firstPageRowCount) {
+            recordLatency(startNanos);
+            firstPageRows.addAndGet(firstPageRowCount);
+        }
+
+        void recordError(long startNanos, boolean timeout) {
+            recordLatency(startNanos);
+            errors.incrementAndGet();
+
+            if (timeout) {
+                timeouts.incrementAndGet();
+            }
+        }
+
+        /**
+         * Adds the latencies recorded since the previous call to the histogram of the interval.
+         */
+        Histogram updateHistogram() {
+            intervalHistogram = recorder.getIntervalHistogram(intervalHistogram);
+            histogram.add(intervalHistogram);
+
+            return histogram;
+        }
+
+        void reset() {
+            recorder.reset();
+            histogram.reset();
+            errors.set(0);
+            timeouts.set(0);
+            firstPageRows.set(0);
+        }
+
+        private void recordLatency(long startNanos) {
+            recorder.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos),
+                    HIGHEST_TRACKABLE_MICROS));
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.PagingState;
+import com.google.common.io.BaseEncoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * Turns driver paging states into the opaque cursors handed to clients, and back.
+ * <p>
+ * A cursor is the paging state followed by its HMAC-SHA256, URL-safe base64 encoded, so a cursor that was altered
+ * is rejected before it reaches the cluster. The driver further rejects a cursor used with another query. Every
+ * instance serving the same clients must share the secret; without one a random secret is used and cursors only
+ * work on the instance that issued them.
+ */
+public class PageCursors {
+    private static final Logger LOG = LoggerFactory.getLogger(PageCursors.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_LENGTH = 32;
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+    private static volatile SecretKeySpec secret;
+    private static final ThreadLocal<Mac> MAC = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                return Mac.getInstance(ALGORITHM);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not create " + ALGORITHM + " MAC", e);
+            }
+        }
+    };
+
+    private PageCursors() {}
+
+    /**
+     * Sets the secret the cursors are signed with.
+     *
+     * @param key the secret, at least 16 bytes
+     */
+    public static void setSecret(byte[] key) {
+        if (key.length < 16) {
+            throw new IllegalArgumentException("The paging cursor secret must be at least 16 bytes");
+        }
+        secret = new SecretKeySpec(key, ALGORITHM);
+    }
+
+    static String encode(PagingState pagingState) {
+        byte[] state, cursor;
+
+        if (pagingState == null) {
+            return null;
+        }
+        state = pagingState.toBytes();
+        cursor = Arrays.copyOf(state, state.length + MAC_LENGTH);
+        System.arraycopy(sign(state), 0, cursor, state.length, MAC_LENGTH);
+
+        return ENCODING.encode(cursor);
+    }
+
+    static PagingState decode(String cursor) throws ResultAccessException {
+        byte[] bytes, state;
+
+        try {
+            bytes = ENCODING.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResultAccessException(e, "Invalid cursor");
+        }
+        if (bytes.length <= MAC_LENGTH) {
+            throw new ResultAccessException("Invalid cursor");
+        }
+        state = Arrays.copyOf(bytes, bytes.length - MAC_LENGTH);
+
+        if (!MessageDigest.isEqual(sign(state), Arrays.copyOfRange(bytes, state.length, bytes.length))) {
+            throw new ResultAccessException("Invalid cursor");
+        }
+        try {
+            return PagingState.fromBytes(state);
+        } catch (RuntimeException e) {
+            throw new ResultAccessException(e, "Invalid cursor");
+        }
+    }
+
+    private static byte[] sign(byte[] state) {
+        Mac mac = MAC.get();
+
+        try {
+            mac.init(getSecret());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not sign cursor", e);
+        }
+
+        return mac.doFinal(state);
+    }
+
+    private static SecretKeySpec getSecret() {
+        if (secret == null) {
+            synchronized (PageCursors.class) {
+                if (secret == null) {
+                    byte[] key = new byte[32];
+
+                    new SecureRandom().nextBytes(key);
+                    LOG.warn("No paging cursor secret is set, cursors will only be valid on this instance");
+                    secret = new SecretKeySpec(key, ALGORITHM);
+                }
+            }
+        }
+
+        return secret;
+    }
+}
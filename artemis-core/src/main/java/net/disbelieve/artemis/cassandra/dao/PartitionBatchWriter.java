@@ -0,0 +1,180 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.data.Result;
+import com.datastax.driver.core.*;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes many rows as UNLOGGED batches, one or more per partition, with a bounded number of batches in flight.
+ * <p>
+ * Rows are grouped by the routing key of their statement, so a batch only ever touches one partition and is applied
+ * by its replicas without a batch log. Statements without a routing key are sent on their own. When no consistency
+ * level is given, each statement keeps its own and is only batched with statements of the same level.
+ * <p>
+ * Batches are sent through {@link #execute(Statement, Operation)}, which the DAO implements so they are recorded
+ * like its other queries.
+ */
+abstract class PartitionBatchWriter {
+
+    /**
+     * Executes a batch, or a statement sent on its own.
+     *
+     * @param statement the statement
+     * @param operation the DAO operation the rows are written for
+     * @return the future of the query
+     */
+    abstract ResultSetFuture execute(Statement statement, Operation operation);
+
+    /**
+     * Writes the statements.
+     *
+     * @param rows             the rows, in write order, or any object standing for each of them
+     * @param statements       the statement writing each row
+     * @param consistencyLevel the consistency level of every batch, or null to keep that of each statement
+     * @param batchSize        the maximum number of statements per batch
+     * @param maxInFlight      the maximum number of batches sent at once
+     * @param operation        the DAO operation the rows are written for
+     * @return the Result containing the rows that could not be written, keyed by identity, with their error
+     */
+    <T> Result<Map<T, Throwable>> write(List<T> rows, List<Statement> statements, ConsistencyLevel consistencyLevel,
+                                        int batchSize, int maxInFlight, Operation operation) {
+        Result<Map<T, Throwable>> result = new Result<Map<T, Throwable>>();
+        List<Batch<T>> batches = groupByPartition(rows, statements, consistencyLevel, batchSize);
+
+        if (batches.isEmpty()) {
+            result.setUnmappedResultSet(null);
+            result.setMappedResult(new IdentityHashMap<T, Throwable>());
+        } else {
+            new Write<T>(this, operation, batches, maxInFlight, result).drain();
+        }
+
+        return result;
+    }
+
+    private <T> List<Batch<T>> groupByPartition(List<T> rows, List<Statement> statements,
+                                                ConsistencyLevel consistencyLevel, int batchSize) {
+        Map<Object, List<Map.Entry<T, Statement>>> partitions = new LinkedHashMap<Object, List<Map.Entry<T, Statement>>>();
+        List<Batch<T>> batches = new ArrayList<Batch<T>>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            ByteBuffer routingKey = statements.get(i).getRoutingKey();
+            Object partition = routingKey == null ? new Object() : consistencyLevel == null ?
+                    Arrays.asList(routingKey, statements.get(i).getConsistencyLevel()) : routingKey;
+            List<Map.Entry<T, Statement>> partitionRows;
+
+            if ((partitionRows = partitions.get(partition)) == null) {
+                partitionRows = new ArrayList<Map.Entry<T, Statement>>();
+                partitions.put(partition, partitionRows);
+            }
+            partitionRows.add(new AbstractMap.SimpleImmutableEntry<T, Statement>(rows.get(i), statements.get(i)));
+        }
+        for (List<Map.Entry<T, Statement>> partitionRows : partitions.values()) {
+            for (int i = 0; i < partitionRows.size(); i += batchSize) {
+                batches.add(new Batch<T>(partitionRows.subList(i, Math.min(i + batchSize, partitionRows.size())),
+                        consistencyLevel));
+            }
+        }
+
+        return batches;
+    }
+
+    private static class Batch<T> {
+        private final List<T> rows = new ArrayList<T>();
+        private final Statement statement;
+
+        Batch(List<Map.Entry<T, Statement>> entries, ConsistencyLevel consistencyLevel) {
+            if (entries.size() == 1) {
+                statement = entries.get(0).getValue();
+            } else {
+                BatchStatement batchStatement = new BatchStatement(BatchStatement.Type.UNLOGGED);
+                boolean idempotent = true;
+
+                for (Map.Entry<T, Statement> entry : entries) {
+                    batchStatement.add(entry.getValue());
+                    idempotent &= Boolean.TRUE.equals(entry.getValue().isIdempotent());
+                }
+                // A batch is only idempotent if every statement in it is
+                batchStatement.setIdempotent(idempotent);
+                statement = batchStatement;
+            }
+            for (Map.Entry<T, Statement> entry : entries) {
+                rows.add(entry.getKey());
+            }
+            // The statements of a batch share their level when none is given
+            statement.setConsistencyLevel(consistencyLevel == null ?
+                    entries.get(0).getValue().getConsistencyLevel() : consistencyLevel);
+        }
+    }
+
+    /**
+     * The state of one call to write. Batches are sent from a drain loop rather than recursively from the callbacks,
+     * so callbacks completing on the calling thread can not grow the stack.
+     */
+    private static class Write<T> {
+        private final PartitionBatchWriter writer;
+        private final Operation operation;
+        private final Queue<Batch<T>> pending;
+        private final int maxInFlight;
+        private final Result<Map<T, Throwable>> result;
+        private final Map<T, Throwable> failures = Collections.synchronizedMap(new IdentityHashMap<T, Throwable>());
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger remaining;
+        private final AtomicInteger drainers = new AtomicInteger();
+
+        Write(PartitionBatchWriter writer, Operation operation, List<Batch<T>> batches, int maxInFlight,
+              Result<Map<T, Throwable>> result) {
+            this.writer = writer;
+            this.operation = operation;
+            this.pending = new ConcurrentLinkedQueue<Batch<T>>(batches);
+            this.maxInFlight = Math.max(maxInFlight, 1);
+            this.result = result;
+            this.remaining = new AtomicInteger(batches.size());
+        }
+
+        void drain() {
+            if (drainers.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                Batch<T> batch;
+
+                while (inFlight.get() < maxInFlight && (batch = pending.poll()) != null) {
+                    inFlight.incrementAndGet();
+                    send(batch);
+                }
+            } while (drainers.decrementAndGet() != 0);
+        }
+
+        private void send(final Batch<T> batch) {
+            Futures.addCallback(writer.execute(batch.statement, operation), new FutureCallback<ResultSet>() {
+                public void onSuccess(ResultSet resultSet) {
+                    complete();
+                }
+
+                public void onFailure(Throwable throwable) {
+                    for (T row : batch.rows) {
+                        failures.put(row, throwable);
+                    }
+                    complete();
+                }
+            });
+        }
+
+        private void complete() {
+            inFlight.decrementAndGet();
+
+            if (remaining.decrementAndGet() == 0) {
+                result.setUnmappedResultSet(null);
+                result.setMappedResult(failures);
+            } else {
+                drain();
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.ClauseExtractor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Prepared statements shared by all DAOs, keyed by the shape of the query rather than its values.
+ * <p>
+ * The key is the query template itself: the operation and table prefix followed by each where clause rendered as
+ * column, operator and bind marker. Two queries only share a prepared statement when they are structurally identical,
+ * and the values never have to be rendered into the query string.
+ */
+class PreparedStatementCache {
+    private static final ConcurrentMap<String, PreparedStatement> preparedQueries =
+            new ConcurrentHashMap<String, PreparedStatement>();
+
+    private PreparedStatementCache() {}
+
+    /**
+     * Binds a conditional query, preparing it the first time its shape is seen.
+     *
+     * @param session         the session used to prepare the query
+     * @param prefix          the operation and table, e.g. "SELECT * FROM ks.table WHERE "
+     * @param whereConditions the conditions of the query
+     * @param limit           the maximum number of rows, or null for no limit
+     * @return the bound statement
+     * @throws ResultAccessException if there are no conditions
+     */
+    static BoundStatement bind(Session session, String prefix, List<Clause> whereConditions, Integer limit)
+            throws ResultAccessException {
+        if (whereConditions == null || whereConditions.isEmpty()) {
+            throw new ResultAccessException("Not a valid conditional query");
+        }
+        StringBuilder template = new StringBuilder(prefix);
+        List<Object> values = new ArrayList<Object>(whereConditions.size() + 1);
+        PreparedStatement preparedQuery;
+        String query;
+
+        for (int i = 0; i < whereConditions.size(); i++) {
+            if (i > 0) {
+                template.append(" AND ");
+            }
+            ClauseExtractor.appendTemplate(whereConditions.get(i), template, values);
+        }
+        if (limit != null) {
+            template.append(" LIMIT ?");
+            values.add(limit);
+        }
+        query = template.toString();
+
+        if ((preparedQuery = preparedQueries.get(query)) == null) {
+            PreparedStatement existing;
+
+            preparedQuery = session.prepare(query);
+
+            if ((existing = preparedQueries.putIfAbsent(query, preparedQuery)) != null) {
+                preparedQuery = existing;
+            }
+        }
+
+        return preparedQuery.bind(values.toArray());
+    }
+}
@@ -0,0 +1,120 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.mapping.annotations.Column;
+import com.datastax.driver.mapping.annotations.Transient;
+import com.google.common.base.Throwables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Maps rows holding only some of the columns of a model, as selected by the projection reads, for models without a
+ * generated ModelAccessor. The driver mapper reads every mapped column and fails on the ones that were not selected.
+ * <p>
+ * Selected columns are deserialized with their CQL type and set through the setter of their field, or the field
+ * itself when there is none. Fields whose column was not selected are left null.
+ */
+class ProjectionMapper<T> {
+    private final Class<T> modelClass;
+    private final ProtocolVersion protocolVersion;
+    private final Map<String, Setter> setters = new HashMap<String, Setter>();
+
+    ProjectionMapper(Class<T> modelClass, ProtocolVersion protocolVersion)
+            throws ResultAccessException {
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        MethodType setterType = MethodType.methodType(void.class, Object.class, Object.class);
+        String fieldName, columnName;
+        MethodHandle setter;
+        Column column;
+
+        this.modelClass = modelClass;
+        this.protocolVersion = protocolVersion;
+
+        for (Field field : modelClass.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers()) ||
+                    field.getAnnotation(Transient.class) != null) {
+                continue;
+            }
+            fieldName = field.getName();
+            column = field.getAnnotation(Column.class);
+            columnName = column == null ? fieldName : column.name();
+
+            // The driver reports column names as stored, lower case unless they were created quoted
+            if (column == null || !column.caseSensitive()) {
+                columnName = columnName.toLowerCase();
+            }
+
+            try {
+                try {
+                    setter = lookup.unreflect(modelClass.getMethod(
+                            "set" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1), field.getType()));
+                } catch (NoSuchMethodException e) {
+                    field.setAccessible(true);
+                    setter = lookup.unreflectSetter(field);
+                }
+            } catch (IllegalAccessException e) {
+                throw new ResultAccessException(e, "Could not call setter for this field.");
+            } catch (SecurityException e) {
+                throw new ResultAccessException(e, "No setter for this field exists.");
+            }
+            setters.put(columnName, new Setter(setter.asType(setterType), field.getType()));
+        }
+    }
+
+    /**
+     * @return the number of columns the driver mapper reads; rows with fewer columns are projections
+     */
+    int getColumnCount() {
+        return setters.size();
+    }
+
+    T map(Row row) {
+        ColumnDefinitions columns = row.getColumnDefinitions();
+        Setter setter;
+        ByteBuffer bytes;
+        T model;
+
+        try {
+            model = modelClass.newInstance();
+
+            for (int i = 0; i < columns.size(); i++) {
+                if ((setter = setters.get(columns.getName(i))) != null && (bytes = row.getBytesUnsafe(i)) != null) {
+                    setter.set(model, columns.getType(i).deserialize(bytes, protocolVersion));
+                }
+            }
+        } catch (Throwable e) {
+            throw Throwables.propagate(e);
+        }
+
+        return model;
+    }
+
+    private static class Setter {
+        private final MethodHandle handle;
+        private final Class<?> type;
+
+        Setter(MethodHandle handle, Class<?> type) {
+            this.handle = handle;
+            this.type = type;
+        }
+
+        void set(Object model, Object value) throws Throwable {
+            if (type.isEnum()) {
+                // Enums are written by name, or by ordinal with @Enumerated(ORDINAL)
+                value = value instanceof Integer ? type.getEnumConstants()[(Integer) value] :
+                        Enum.valueOf((Class) type, (String) value);
+            }
+            handle.invokeExact(model, value);
+        }
+    }
+}
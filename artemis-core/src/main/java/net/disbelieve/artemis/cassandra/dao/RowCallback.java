@@ -0,0 +1,17 @@
+package com.comcast.artemis.cassandra.dao;
+
+/**
+ * Receives the rows of a table scan as they are read.
+ * <p>
+ * A parallel scan calls this from several threads at once, so implementations must be thread safe.
+ *
+ * @param <T> the model type
+ */
+public interface RowCallback<T> {
+    /**
+     * Called once for every row read.
+     *
+     * @param row the row mapped to the model type, with fields annotated with @Secure decrypted
+     */
+    void onRow(T row);
+}
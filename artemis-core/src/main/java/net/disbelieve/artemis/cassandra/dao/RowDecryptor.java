@@ -0,0 +1,193 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.jmx.DecryptionMXBean;
+import com.comcast.x1.crypt.CryptUtil;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decrypts the fields annotated with @Secure in the rows read by one DAO and keeps statistics on it.
+ */
+class RowDecryptor<T> implements DecryptionMXBean {
+    private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+    // Chunks that do not fit in the queue are decrypted by the thread that read the rows
+    private static final ListeningExecutorService pool = MoreExecutors.listeningDecorator(new ThreadPoolExecutor(
+            PARALLELISM, PARALLELISM, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(PARALLELISM * 16),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("artemis-decrypt-%d").build(),
+            new ThreadPoolExecutor.CallerRunsPolicy()));
+    private final AtomicLong decryptedRows = new AtomicLong();
+    private final AtomicLong deferredRows = new AtomicLong();
+    private final AtomicLong parallelDecryptions = new AtomicLong();
+    private final AtomicLong decryptNanos = new AtomicLong();
+    private volatile DecryptionMode mode = DecryptionMode.EAGER;
+
+    void setMode(DecryptionMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Decrypts one row.
+     *
+     * @param row the row
+     * @return the row, decrypted in place
+     */
+    T decrypt(T row) {
+        long start = System.nanoTime();
+
+        CryptUtil.decrypt(row);
+        record(1, start);
+
+        return row;
+    }
+
+    /**
+     * Decrypts the rows of a result as the mode requires.
+     *
+     * @param rows              the rows
+     * @param parallelThreshold the number of rows from which the PARALLEL mode uses the pool
+     * @return a future completed with the rows once they are decrypted, or can be decrypted as they are read
+     */
+    ListenableFuture<List<T>> decrypt(final List<T> rows, int parallelThreshold) {
+        List<ListenableFuture<?>> chunks;
+        int chunkSize;
+
+        switch (mode) {
+            case LAZY:
+                deferredRows.addAndGet(rows.size());
+
+                return Futures.<List<T>>immediateFuture(new DecryptingList<T>(this, rows));
+            case PARALLEL:
+                if (rows.size() >= Math.max(parallelThreshold, 2)) {
+                    chunks = new ArrayList<ListenableFuture<?>>(PARALLELISM);
+                    chunkSize = (rows.size() + PARALLELISM - 1) / PARALLELISM;
+                    parallelDecryptions.incrementAndGet();
+
+                    for (int i = 0; i < rows.size(); i += chunkSize) {
+                        final List<T> chunk = rows.subList(i, Math.min(i + chunkSize, rows.size()));
+
+                        chunks.add(pool.submit(new Callable<Void>() {
+                            public Void call() {
+                                decryptAll(chunk);
+                                return null;
+                            }
+                        }));
+                    }
+
+                    return Futures.transform(Futures.allAsList(chunks), new Function<Object, List<T>>() {
+                        public List<T> apply(Object decrypted) {
+                            return rows;
+                        }
+                    });
+                }
+                // Too few rows to be worth handing off
+                decryptAll(rows);
+
+                return Futures.immediateFuture(rows);
+            default:
+                decryptAll(rows);
+
+                return Futures.immediateFuture(rows);
+        }
+    }
+
+    private void decryptAll(List<T> rows) {
+        long start = System.nanoTime();
+
+        for (T row : rows) {
+            CryptUtil.decrypt(row);
+        }
+        record(rows.size(), start);
+    }
+
+    private void record(int rows, long start) {
+        decryptNanos.addAndGet(System.nanoTime() - start);
+        decryptedRows.addAndGet(rows);
+    }
+
+    public String getMode() {
+        return mode.name();
+    }
+
+    public long getDecryptedRows() {
+        return decryptedRows.get();
+    }
+
+    public long getDeferredRows() {
+        return deferredRows.get();
+    }
+
+    public long getParallelDecryptions() {
+        return parallelDecryptions.get();
+    }
+
+    public long getTotalDecryptTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(decryptNanos.get());
+    }
+
+    public double getMeanDecryptTimeMicros() {
+        long rows = decryptedRows.get();
+
+        return rows == 0 ? 0 : decryptNanos.get() / 1000d / rows;
+    }
+
+    /**
+     * A list decrypting each row the first time it is read. It may be read from several threads, as rows held by
+     * the entity cache are.
+     */
+    private static class DecryptingList<T> extends AbstractList<T> implements RandomAccess {
+        private final RowDecryptor<T> decryptor;
+        private final List<T> rows;
+        private final AtomicIntegerArray decrypted;
+
+        DecryptingList(RowDecryptor<T> decryptor, List<T> rows) {
+            this.decryptor = decryptor;
+            this.rows = rows;
+            this.decrypted = new AtomicIntegerArray(rows.size());
+        }
+
+        @Override
+        public T get(int index) {
+            T row = rows.get(index);
+
+            if (decrypted.get(index) == 0) {
+                synchronized (this) {
+                    if (decrypted.get(index) == 0) {
+                        decryptor.decrypt(row);
+                        decrypted.set(index, 1);
+                    }
+                }
+            }
+
+            return row;
+        }
+
+        @Override
+        public T set(int index, T row) {
+            T previous = get(index);
+
+            rows.set(index, row);
+
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return rows.size();
+        }
+    }
+}
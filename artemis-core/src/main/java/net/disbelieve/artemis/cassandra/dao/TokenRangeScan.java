@@ -0,0 +1,164 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.data.Result;
+import com.datastax.driver.core.*;
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads a whole table by splitting the token ring into sub-ranges and querying them concurrently.
+ * <p>
+ * Each sub-range is a single "token(partition key) > ? AND token(partition key) <= ?" query, so the work is spread
+ * over every replica instead of a single coordinator, and rows are mapped on the scanning threads.
+ *
+ * @param <T> the type rows are mapped to
+ */
+class TokenRangeScan<T> {
+    private static final int SPLITS_PER_THREAD = 4;
+    private final Session session;
+    private final String selectPrefix;
+    private final String token;
+    private final Function<ResultSet, Iterator<T>> rowMapper;
+
+    /**
+     * @param session             the session
+     * @param selectPrefix        the select, up to and including WHERE, of every query
+     * @param orderedPartitionKey the columns of the partition key
+     * @param rowMapper           maps the ResultSet of a sub-range to an iterator over its rows
+     */
+    TokenRangeScan(Session session, String selectPrefix, List<String> orderedPartitionKey,
+                   Function<ResultSet, Iterator<T>> rowMapper) {
+        this.session = session;
+        this.selectPrefix = selectPrefix;
+        this.rowMapper = rowMapper;
+        this.token = QueryBuilder.token(orderedPartitionKey.toArray(new String[orderedPartitionKey.size()]));
+    }
+
+    /**
+     * Scans the table.
+     *
+     * @param parallelism      the maximum number of sub-ranges read at once
+     * @param fetchSize        the number of rows to fetch per page
+     * @param rowsPerSecond    the maximum rate rows are handed to the callback, or null for no limit
+     * @param consistencyLevel the consistency level of every query
+     * @param callback         receives every row
+     * @return the Result containing the number of rows read and, in the case of an error, the Throwable
+     */
+    Result<Long> execute(int parallelism, final int fetchSize, Double rowsPerSecond,
+                         final ConsistencyLevel consistencyLevel, final RowCallback<T> callback) {
+        final Result<Long> result = new Result<Long>();
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        final RateLimiter rateLimiter = rowsPerSecond == null ? null : RateLimiter.create(rowsPerSecond);
+        ListeningExecutorService listeningExecutor = MoreExecutors.listeningDecorator(executor);
+        List<ListenableFuture<Long>> futures = new ArrayList<ListenableFuture<Long>>();
+
+        try {
+            for (TokenRange range : splitRing(parallelism * SPLITS_PER_THREAD)) {
+                for (final List<Clause> whereConditions : buildClauses(range)) {
+                    futures.add(listeningExecutor.submit(new Callable<Long>() {
+                        public Long call() throws Exception {
+                            return scanRange(whereConditions, fetchSize, consistencyLevel, rateLimiter, callback);
+                        }
+                    }));
+                }
+            }
+        } catch (RuntimeException e) {
+            executor.shutdownNow();
+            result.setError(e);
+
+            return result;
+        }
+        executor.shutdown();
+
+        Futures.addCallback(Futures.allAsList(futures), new FutureCallback<List<Long>>() {
+            public void onSuccess(List<Long> counts) {
+                long count = 0;
+
+                for (Long rangeCount : counts) {
+                    count += rangeCount;
+                }
+                result.setUnmappedResultSet(null);
+                result.setMappedResult(count);
+            }
+
+            public void onFailure(Throwable throwable) {
+                executor.shutdownNow();
+                result.setError(throwable);
+            }
+        });
+
+        return result;
+    }
+
+    private long scanRange(List<Clause> whereConditions, int fetchSize, ConsistencyLevel consistencyLevel,
+                           RateLimiter rateLimiter, RowCallback<T> callback) throws Exception {
+        Statement statement = PreparedStatementCache.bind(session, selectPrefix, whereConditions, null);
+        Iterator<T> rows;
+        long count = 0;
+
+        statement.setFetchSize(fetchSize);
+        statement.setConsistencyLevel(consistencyLevel);
+        statement.setIdempotent(true);
+        rows = rowMapper.apply(session.execute(statement));
+
+        while (rows.hasNext() && !Thread.currentThread().isInterrupted()) {
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            callback.onRow(rows.next());
+            count++;
+        }
+
+        return count;
+    }
+
+    private List<TokenRange> splitRing(int splitCount) {
+        Set<TokenRange> ring = session.getCluster().getMetadata().getTokenRanges();
+        int splitsPerRange = Math.max(1, (splitCount + ring.size() - 1) / ring.size());
+        List<TokenRange> splits = new ArrayList<TokenRange>();
+
+        for (TokenRange range : ring) {
+            for (TokenRange unwrapped : range.unwrap()) {
+                splits.addAll(unwrapped.splitEvenly(splitsPerRange));
+            }
+        }
+
+        return splits;
+    }
+
+    /**
+     * A range whose end is not after its start either ends on the minimum token or covers the whole ring, and
+     * neither can be expressed as a single "> start AND <= end" query, so it is read as its two open-ended halves.
+     */
+    private List<List<Clause>> buildClauses(TokenRange range) {
+        List<List<Clause>> clauses = new ArrayList<List<Clause>>();
+        Object start = range.getStart().getValue();
+        Object end = range.getEnd().getValue();
+        List<Clause> whereConditions = new ArrayList<Clause>();
+
+        whereConditions.add(QueryBuilder.gt(token, start));
+
+        if (range.getEnd().compareTo(range.getStart()) > 0) {
+            whereConditions.add(QueryBuilder.lte(token, end));
+            clauses.add(whereConditions);
+        } else {
+            List<Clause> lowerConditions = new ArrayList<Clause>();
+
+            lowerConditions.add(QueryBuilder.lte(token, end));
+            clauses.add(whereConditions);
+            clauses.add(lowerConditions);
+        }
+
+        return clauses;
+    }
+}
@@ -0,0 +1,237 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.data.Result;
+import com.comcast.artemis.jmx.WriteBehindMXBean;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Buffers the writes of one DAO for a few milliseconds and flushes them as per-partition UNLOGGED batches.
+ * <p>
+ * Writes are keyed by the serialized PRIMARY KEY of their statement. A write to a key that is still buffered
+ * replaces the buffered one (last write wins), and the Results of both complete when the surviving write is flushed.
+ * Buffered writes keep the consistency level of the request that made them and are only batched with writes of the
+ * same level.
+ */
+class WriteBehindBuffer implements WriteBehindMXBean {
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindBuffer.class);
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("artemis-write-behind-%d").build());
+    private final ConcurrentMap<List<ByteBuffer>, PendingWrite> pending =
+            new ConcurrentHashMap<List<ByteBuffer>, PendingWrite>();
+    private final Set<ListenableFuture<?>> flushing =
+            Collections.newSetFromMap(new ConcurrentHashMap<ListenableFuture<?>, Boolean>());
+    private final PartitionBatchWriter writer;
+    private final List<String> orderedPrimaryKey;
+    private final int maxPending;
+    private final int batchSize;
+    private final int maxInFlight;
+    private final ScheduledFuture<?> flushTask;
+    private final Runnable flushRunnable = new Runnable() {
+        public void run() {
+            try {
+                flushPending();
+            } catch (RuntimeException e) {
+                LOG.error("Could not flush write-behind buffer", e);
+            }
+        }
+    };
+    private final AtomicLong bufferedWrites = new AtomicLong();
+    private final AtomicLong coalescedWrites = new AtomicLong();
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private volatile boolean open = true;
+
+    WriteBehindBuffer(PartitionBatchWriter writer, List<String> orderedPrimaryKey, long flushIntervalMillis,
+                      int maxPending, int batchSize, int maxInFlight) {
+        this.writer = writer;
+        this.orderedPrimaryKey = orderedPrimaryKey;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        this.maxInFlight = maxInFlight;
+        this.flushTask = scheduler.scheduleWithFixedDelay(flushRunnable, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers a write.
+     *
+     * @param statement the statement writing a model, as built by the mapper
+     * @return the Result completed once the write, or the write replacing it, has been flushed, or null if the
+     * buffer is closed and the write must be sent directly
+     */
+    Result buffer(Statement statement) {
+        Result result = new Result();
+        List<ByteBuffer> key = new ArrayList<ByteBuffer>(orderedPrimaryKey.size());
+        PendingWrite write, previous;
+
+        if (!open) {
+            return null;
+        }
+        for (String column : orderedPrimaryKey) {
+            key.add(((BoundStatement) statement).getBytesUnsafe(column));
+        }
+        bufferedWrites.incrementAndGet();
+
+        do {
+            write = new PendingWrite(key, statement, result);
+
+            if ((previous = pending.get(key)) == null) {
+                if (pending.putIfAbsent(key, write) == null) {
+                    break;
+                }
+            } else {
+                write.results.addAll(previous.results);
+
+                if (pending.replace(key, previous, write)) {
+                    coalescedWrites.incrementAndGet();
+                    break;
+                }
+            }
+        } while (true);
+
+        // The buffer may have been closed, and its last flush taken, while the write was being added
+        if (!open) {
+            flushPending();
+        } else if (pending.size() >= maxPending) {
+            scheduler.execute(flushRunnable);
+        }
+
+        return result;
+    }
+
+    /**
+     * Flushes every buffered write.
+     *
+     * @return a future completed once every write buffered so far, including those already being flushed, has been
+     * acknowledged or has failed
+     */
+    ListenableFuture<?> flushAll() {
+        flushPending();
+
+        return Futures.successfulAsList(new ArrayList<ListenableFuture<?>>(flushing));
+    }
+
+    /**
+     * Stops buffering and flushes every buffered write.
+     *
+     * @return a future completed once every buffered write has been acknowledged or has failed
+     */
+    ListenableFuture<?> close() {
+        open = false;
+        flushTask.cancel(false);
+
+        return flushAll();
+    }
+
+    /**
+     * Stops buffering, flushes every buffered write and waits for them.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the unit of the timeout
+     */
+    void drain(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        close().get(timeout, unit);
+    }
+
+    private void flushPending() {
+        final List<PendingWrite> writes = new ArrayList<PendingWrite>();
+        List<List<ByteBuffer>> keys = new ArrayList<List<ByteBuffer>>();
+        List<Statement> statements = new ArrayList<Statement>();
+        final ListenableFuture<Map<List<ByteBuffer>, Throwable>> future;
+
+        for (Map.Entry<List<ByteBuffer>, PendingWrite> entry : pending.entrySet()) {
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                writes.add(entry.getValue());
+                keys.add(entry.getValue().key);
+                statements.add(entry.getValue().statement);
+            }
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        // Writes are told apart by their key rather than their model, which a caller may reuse for several keys
+        future = writer.write(keys, statements, null, batchSize, maxInFlight, Operation.PUT_ONE).getMappedFuture();
+        flushing.add(future);
+
+        Futures.addCallback(future, new FutureCallback<Map<List<ByteBuffer>, Throwable>>() {
+            public void onSuccess(Map<List<ByteBuffer>, Throwable> failures) {
+                Throwable throwable;
+
+                for (PendingWrite write : writes) {
+                    if ((throwable = failures.get(write.key)) == null) {
+                        flushedWrites.incrementAndGet();
+                        write.complete(null);
+                    } else {
+                        failedWrites.incrementAndGet();
+                        write.complete(throwable);
+                    }
+                }
+                flushing.remove(future);
+            }
+
+            public void onFailure(Throwable throwable) {
+                for (PendingWrite write : writes) {
+                    failedWrites.incrementAndGet();
+                    write.complete(throwable);
+                }
+                flushing.remove(future);
+            }
+        });
+    }
+
+    public void flush() {
+        flushAll();
+    }
+
+    public int getQueueDepth() {
+        return pending.size();
+    }
+
+    public long getBufferedWrites() {
+        return bufferedWrites.get();
+    }
+
+    public long getCoalescedWrites() {
+        return coalescedWrites.get();
+    }
+
+    public long getFlushedWrites() {
+        return flushedWrites.get();
+    }
+
+    public long getFailedWrites() {
+        return failedWrites.get();
+    }
+
+    private static class PendingWrite {
+        private final List<ByteBuffer> key;
+        private final Statement statement;
+        private final List<Result> results = new ArrayList<Result>(1);
+
+        PendingWrite(List<ByteBuffer> key, Statement statement, Result result) {
+            this.key = key;
+            this.statement = statement;
+            this.results.add(result);
+        }
+
+        void complete(Throwable throwable) {
+            for (Result result : results) {
+                if (throwable == null) {
+                    result.setUnmappedResultSet(null);
+                    result.setMappedResult(null);
+                } else {
+                    result.setError(throwable);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.comcast.artemis.cassandra.data;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the rows of a model read by the PRIMARY KEY in its DAO.
+ * <p>
+ * See {@link com.comcast.artemis.cassandra.dao.CassandraDAO#enableCache(long, long, long)}.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface Cached {
+    /**
+     * @return the maximum number of rows cached
+     */
+    long maximumSize() default 10000;
+
+    /**
+     * @return the time after which a cached row is evicted
+     */
+    long expireAfterWriteMillis() default 60000;
+
+    /**
+     * @return the time after which a cached row is reloaded in the background when it is read, 0 to never reload
+     */
+    long refreshAfterWriteMillis() default 0;
+}
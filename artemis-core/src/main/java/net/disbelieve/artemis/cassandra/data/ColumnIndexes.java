@@ -0,0 +1,43 @@
+package com.comcast.artemis.cassandra.data;
+
+import com.datastax.driver.core.ColumnDefinitions;
+
+import java.util.List;
+
+/**
+ * The index of each column of a model in the rows of a result, resolved once for their ColumnDefinitions, which the
+ * rows of a result share, so the generated ModelAccessors read the columns of each row by index rather than by name.
+ */
+public class ColumnIndexes {
+    private final ColumnDefinitions columns;
+    private final int[] indexes;
+
+    /**
+     * @param columns the columns of the rows
+     * @param names   the columns of the model, quoted when they are case sensitive
+     */
+    public ColumnIndexes(ColumnDefinitions columns, List<String> names) {
+        this.columns = columns;
+        this.indexes = new int[names.size()];
+
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = columns.getIndexOf(names.get(i));
+        }
+    }
+
+    /**
+     * @param columns the columns of a row
+     * @return whether the indexes were resolved for these columns
+     */
+    public boolean isFor(ColumnDefinitions columns) {
+        return this.columns == columns;
+    }
+
+    /**
+     * @param column the position of the column in the names the indexes were resolved for
+     * @return the index of the column in the rows, -1 if the rows do not hold it
+     */
+    public int get(int column) {
+        return indexes[column];
+    }
+}
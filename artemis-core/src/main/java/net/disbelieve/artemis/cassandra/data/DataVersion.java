@@ -0,0 +1,48 @@
+package com.comcast.artemis.cassandra.data;
+
+import java.util.Date;
+
+/**
+ * The version of the records a query selects, read from their keys, the write times of their columns and their
+ * collections.
+ * <p>
+ * The tag is a digest that changes whenever a column of the records is written, nulled or deleted, a collection is
+ * changed or a record is added or removed, so it can be used as an ETag. The last modified date only follows the
+ * latest write and does not move when a column is deleted, so it is informational only.
+ */
+public class DataVersion {
+    private final long lastWriteTime;
+    private final int rowCount;
+    private final String digest;
+
+    public DataVersion(long lastWriteTime, int rowCount, String digest) {
+        this.lastWriteTime = lastWriteTime;
+        this.rowCount = rowCount;
+        this.digest = digest;
+    }
+
+    /**
+     * @return the latest write time of the records, in microseconds since the epoch, or 0 if there are none
+     */
+    public long getLastWriteTime() {
+        return lastWriteTime;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the latest write time of the records, to the millisecond
+     */
+    public Date getLastModified() {
+        return new Date(lastWriteTime / 1000);
+    }
+
+    /**
+     * @return an opaque tag of the keys, write times and collections of the records
+     */
+    public String getTag() {
+        return digest;
+    }
+}
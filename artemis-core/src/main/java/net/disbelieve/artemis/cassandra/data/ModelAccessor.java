@@ -0,0 +1,40 @@
+package com.comcast.artemis.cassandra.data;
+
+import com.datastax.driver.core.Row;
+
+import java.util.List;
+
+/**
+ * The metadata of a model and the code reading and writing its columns, generated at build time for every class
+ * annotated with @Table by {@link com.comcast.artemis.processor.ModelAccessorProcessor}.
+ * <p>
+ * The generated class is named after the model with the {@link ModelAccessors#SUFFIX} suffix, in the same package.
+ * Column, keyspace and table names are quoted when they are case sensitive, as in CQL.
+ *
+ * @param <T> the model type
+ */
+public interface ModelAccessor<T> {
+    String getKeyspace();
+
+    String getTable();
+
+    List<String> getPartitionKey();
+
+    List<String> getClusterKey();
+
+    List<String> getPrimaryKey();
+
+    /**
+     * @param model the model
+     * @return the value of each primary key column, in the order of the primary key, null for the ones not set
+     */
+    Object[] getPrimaryKeyValues(T model);
+
+    /**
+     * Maps a row to a new model. Columns absent from the row are left unset.
+     *
+     * @param row the row
+     * @return the model
+     */
+    T map(Row row);
+}
@@ -0,0 +1,31 @@
+package com.comcast.artemis.cassandra.data;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the ModelAccessor generated for a model.
+ */
+public class ModelAccessors {
+    public static final String SUFFIX = "_Accessor";
+    private static final Logger LOG = LoggerFactory.getLogger(ModelAccessors.class);
+
+    private ModelAccessors() {}
+
+    /**
+     * @param modelClass the model class
+     * @return the ModelAccessor generated for the model, or null if there is none
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ModelAccessor<T> forClass(Class<T> modelClass) {
+        try {
+            return (ModelAccessor<T>) Class.forName(modelClass.getName() + SUFFIX, true, modelClass.getClassLoader())
+                    .newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (Exception e) {
+            LOG.warn("Could not load the generated accessor of " + modelClass.getName(), e);
+            return null;
+        }
+    }
+}
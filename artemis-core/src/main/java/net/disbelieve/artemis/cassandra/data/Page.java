@@ -0,0 +1,27 @@
+package com.comcast.artemis.cassandra.data;
+
+import java.util.List;
+
+/**
+ * One page of records and the cursor of the next one.
+ */
+public class Page<T> {
+    private final List<T> rows;
+    private final String nextCursor;
+
+    public Page(List<T> rows, String nextCursor) {
+        this.rows = rows;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * @return the opaque cursor of the next page, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
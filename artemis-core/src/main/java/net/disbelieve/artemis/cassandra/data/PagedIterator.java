@@ -0,0 +1,82 @@
+package com.comcast.artemis.cassandra.data;
+
+import com.datastax.driver.core.ResultSet;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily maps the rows of a paged ResultSet, one page at a time.
+ * <p>
+ * Once the rows left in the current page drop to the prefetch threshold the next page is requested asynchronously,
+ * so it is usually already in memory by the time the current page has been consumed. At most the current and the
+ * next page are held on the heap.
+ * <p>
+ * fields annotated with @Secure will be decrypted as each object is returned, by the mapped iterator the DAO passes
+ * <p>
+ * This iterator is not thread safe.
+ */
+public class PagedIterator<T> implements Iterator<T> {
+    private final ResultSet resultSet;
+    private final Iterator<T> mappedIterator;
+    private final int prefetchThreshold;
+    private ListenableFuture<Void> pendingFetch;
+    private boolean cancelled;
+
+    public PagedIterator(ResultSet resultSet, Iterator<T> mappedIterator, int fetchSize) {
+        this.resultSet = resultSet;
+        this.mappedIterator = mappedIterator;
+        this.prefetchThreshold = Math.max(fetchSize / 2, 1);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (cancelled) {
+            return false;
+        }
+        prefetch();
+        return mappedIterator.hasNext();
+    }
+
+    @Override
+    public T next() {
+        if (cancelled) {
+            throw new NoSuchElementException("The iterator was cancelled");
+        }
+        prefetch();
+
+        return mappedIterator.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Rows can not be removed through a result iterator");
+    }
+
+    /**
+     * @return the number of rows that can be returned without waiting on the cluster
+     */
+    public int getAvailableWithoutFetching() {
+        return resultSet.getAvailableWithoutFetching();
+    }
+
+    /**
+     * Stops the iteration: no further page is requested, the page being fetched, if any, is cancelled and hasNext
+     * returns false from then on.
+     */
+    public void cancel() {
+        cancelled = true;
+
+        if (pendingFetch != null) {
+            pendingFetch.cancel(true);
+        }
+    }
+
+    private void prefetch() {
+        // fetchMoreResults() hands back the pending future if a fetch is already in flight
+        if (!resultSet.isFullyFetched() && resultSet.getAvailableWithoutFetching() <= prefetchThreshold) {
+            pendingFetch = resultSet.fetchMoreResults();
+        }
+    }
+}
@@ -1,27 +1,25 @@
 package com.comcast.artemis.cassandra.data;
 
 import com.comcast.artemis.exception.ResultAccessException;
-import com.comcast.x1.crypt.CryptUtil;
 import com.datastax.driver.core.ResultSet;
-import com.google.common.base.Optional;
-import org.eclipse.jetty.util.BlockingArrayQueue;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 
-import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Created by kmatth002c on 4/7/2015.
  */
 public class Result<T> {
-    private BlockingQueue mappedResultQueue = new BlockingArrayQueue();
-    private BlockingQueue unmappedResultQueue = new BlockingArrayQueue();
-    private Optional mappedOptional;
-    private Optional unmappedOptional;
+    private final SettableFuture<T> mappedResultFuture = SettableFuture.create();
+    private final SettableFuture<ResultSet> unmappedResultFuture = SettableFuture.create();
+    private boolean mappedConsumed;
+    private boolean unmappedConsumed;
 
     public void setError(Throwable error) {
-        mappedResultQueue.add(error);
-        unmappedResultQueue.add(error);
+        mappedResultFuture.setException(error);
+        unmappedResultFuture.setException(error);
     }
 
     /**
@@ -37,17 +35,27 @@ public class Result<T> {
      * @throws com.comcast.artemis.exception.ResultAccessException the mapped result access exception
      */
     public T getMappedResult() throws ResultAccessException {
-        Object obj =  getResult(mappedOptional, mappedResultQueue);
-
-        if(obj != null) {
-            return (T)obj;
+        if (mappedConsumed) {
+            throw new ResultAccessException(new NoSuchElementException("Element already consumed"));
         }
-        return null;
+        mappedConsumed = true;
+
+        return getResult(mappedResultFuture);
     }
 
     public void setMappedResult(T mappedResult) {
-        Optional optional = (Optional) Optional.fromNullable(mappedResult);
-        mappedResultQueue.add(optional);
+        mappedResultFuture.set(mappedResult);
+    }
+
+    /**
+     * Gets the mapped result without blocking.
+     *
+     * @return a future completed with the mapped object, or list of objects, of type T, or failed with the error.
+     * It can be composed with {@link com.google.common.util.concurrent.Futures#transform} and
+     * {@link com.google.common.util.concurrent.Futures#allAsList} and may be read any number of times.
+     */
+    public ListenableFuture<T> getMappedFuture() {
+        return mappedResultFuture;
     }
 
     /**
@@ -59,38 +67,38 @@ public class Result<T> {
      * @throws com.comcast.artemis.exception.ResultAccessException the mapped result access exception
      */
     public ResultSet getUnmappedResult() throws ResultAccessException {
-        Object obj =  getResult(unmappedOptional, unmappedResultQueue);
-
-        if(obj != null) {
-            return (ResultSet)obj;
+        if (unmappedConsumed) {
+            throw new ResultAccessException(new NoSuchElementException("Element already consumed"));
         }
-        return null;
+        unmappedConsumed = true;
+
+        return getResult(unmappedResultFuture);
     }
-    
+
     public void setUnmappedResultSet(ResultSet unmappedResult) {
-        Optional optional = (Optional) Optional.fromNullable(unmappedResult);
-        unmappedResultQueue.add(optional);
+        unmappedResultFuture.set(unmappedResult);
     }
 
-    private Object getResult(Optional optional, BlockingQueue resultQueue) throws  ResultAccessException {
-        if (optional == null) {
-            try {
-                Object obj = resultQueue.take();
+    /**
+     * Gets the unmapped result without blocking.
+     *
+     * @return a future completed with the ResultSet, or failed with the error.
+     */
+    public ListenableFuture<ResultSet> getUnmappedFuture() {
+        return unmappedResultFuture;
+    }
 
-                if(obj instanceof Exception) {
-                    throw new ResultAccessException((Exception)obj);
-                } else {
-                    if(((Optional)obj).isPresent()) {
-                        return ((Optional)obj).get();
-                    } else {
-                        return null;
-                    }
-                }
-            } catch (InterruptedException e) {
-                throw new ResultAccessException(e);
+    private <V> V getResult(ListenableFuture<V> future) throws ResultAccessException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResultAccessException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw new ResultAccessException((Exception) e.getCause());
             }
-        } else {
-            throw new ResultAccessException(new NoSuchElementException("Element already consumed"));
+            throw new ResultAccessException(e);
         }
     }
 }
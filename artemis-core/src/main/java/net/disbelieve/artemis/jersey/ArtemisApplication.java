@@ -1,14 +1,19 @@
 package com.comcast.artemis.jersey;
 
 import com.comcast.artemis.cassandra.CassandraConnect;
+import com.comcast.artemis.cassandra.ConsistencyLevels;
 import com.comcast.artemis.cassandra.dao.CassandraDAO;
+import com.comcast.artemis.cassandra.dao.PageCursors;
 import com.comcast.artemis.cassandra.dao.Repository;
+import com.comcast.artemis.ecryption.EncryptionUtils;
 import com.comcast.artemis.exception.ConnectionException;
+import com.comcast.artemis.jersey.filter.BinaryFormatFilter;
 import com.comcast.artemis.jersey.filter.CassandraConsistencyLevelFilter;
-import com.comcast.artemis.jmx.CassandraMetadataMXBeanImpl;
-import com.comcast.artemis.jmx.MXBeansManager;
+import com.comcast.artemis.jersey.filter.CompressionFilter;
 import com.comcast.artemis.utils.ClassUtils;
 import com.comcast.artemis.utils.CassandraConnectUtils;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.glassfish.jersey.jackson.JacksonFeature;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.slf4j.Logger;
@@ -31,13 +36,15 @@ public class ArtemisApplication extends ResourceConfig {
     private static final HashMap daos = new HashMap<Class,CassandraDAO>();
     private CassandraConnect cassandra;
     protected Properties properties;
+    private ObjectMappers objectMappers;
 
     public ArtemisApplication() {
         CassandraConnect.ConnectionBuilder builder;
         CassandraConnectUtils connectUtils;
         Properties propertiesDefault = new Properties();
         InputStream propertyStream = null;
-        String writeConsistency, readConsistency;
+        String writeConsistency, readConsistency, pagingCursorSecret, compressionThreshold;
+        int threshold = CompressionFilter.DEFAULT_THRESHOLD;
 
         try {
             propertyStream = getClass().getClassLoader().getResourceAsStream("cassandra.properties");
@@ -92,21 +99,66 @@ public class ArtemisApplication extends ResourceConfig {
         readConsistency = properties.getProperty(CassandraConnect.PROPERTIES.READ_CONSISTENCY_LEVEL.toString());
         writeConsistency = properties.getProperty(CassandraConnect.PROPERTIES.WRITE_CONSISTENCY_LEVEL.toString());
 
-        if(writeConsistency != null) {
-            MXBeansManager.setMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.WRITE_CONSISTENCY_LEVEL.toString(),
-                    writeConsistency.toUpperCase());
+        try {
+            if(writeConsistency != null) {
+                ConsistencyLevels.setWriteConsistencyLevel(ConsistencyLevel.valueOf(writeConsistency.toUpperCase()));
+            }
+            if(readConsistency != null) {
+                ConsistencyLevels.setReadConsistencyLevel(ConsistencyLevel.valueOf(readConsistency.toUpperCase()));
+            }
+        } catch (IllegalArgumentException e) {
+            LOG.error("Invalid consistency level", e);
         }
-        if(readConsistency != null) {
-            MXBeansManager.setMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.READ_CONSISTENCY_LEVEL.toString(),
-                    readConsistency.toUpperCase());
+        pagingCursorSecret = properties.getProperty(CassandraConnect.PROPERTIES.PAGING_CURSOR_SECRET.toString());
+
+        if (pagingCursorSecret != null) {
+            if (pagingCursorSecret.startsWith("enc:")) {
+                pagingCursorSecret = EncryptionUtils.decrypt(pagingCursorSecret.substring(4));
+            }
+            try {
+                PageCursors.setSecret(pagingCursorSecret.getBytes("UTF-8"));
+            } catch (Exception e) {
+                LOG.error("Invalid paging cursor secret", e);
+            }
+        }
+        compressionThreshold = properties.getProperty(
+                CassandraConnect.PROPERTIES.RESPONSE_COMPRESSION_THRESHOLD.toString());
+
+        if (compressionThreshold != null) {
+            try {
+                threshold = Integer.parseInt(compressionThreshold.trim());
+            } catch (NumberFormatException e) {
+                LOG.error("Invalid response compression threshold", e);
+            }
+        }
+        objectMappers = new ObjectMappers();
+
+        for (ObjectMapper objectMapper : objectMappers.getAll()) {
+            configureObjectMapper(objectMapper);
         }
         register(JacksonFeature.class);
+        register(objectMappers);
+        register(new BinaryJacksonProvider(objectMappers));
+        register(new PagedIteratorWriter(objectMappers));
+        register(BinaryFormatFilter.class);
         register(CassandraConsistencyLevelFilter.class);
+
+        // A negative threshold turns response compression off
+        if (threshold >= 0) {
+            register(new CompressionFilter(threshold));
+        }
         packages("com.comcast.artemis.jersey");
     }
 
+    /**
+     * Configures the ObjectMappers entities are read and written with, the same way for JSON, Smile and CBOR. It is
+     * called from the constructor of this class, before the fields of a subclass are initialized.
+     *
+     * @param objectMapper the mapper of one format
+     */
+    protected void configureObjectMapper(ObjectMapper objectMapper) {
+    }
+
     public static CassandraDAO getDAO(Class daoType) {
         return (CassandraDAO) daos.get(daoType);
     }
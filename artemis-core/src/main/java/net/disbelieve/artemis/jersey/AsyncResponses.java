@@ -0,0 +1,218 @@
+package com.comcast.artemis.jersey;
+
+import com.comcast.artemis.cassandra.data.DataVersion;
+import com.comcast.artemis.cassandra.data.Page;
+import com.comcast.artemis.cassandra.data.PagedIterator;
+import com.comcast.artemis.cassandra.data.Result;
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.exceptions.*;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.util.Date;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resumes suspended requests straight from the driver callback.
+ * <p>
+ * Resources should hand the Result of a DAO call to {@link #resume(Result, AsyncResponse)} instead of blocking on
+ * getMappedResult() in a thread of their own. No thread is created or parked while the query runs.
+ * <p>
+ * A PagedIterator is resumed from a thread of a small streaming pool instead, as PagedIteratorWriter writes it while
+ * its further pages arrive. When the pool and its queue are full, the iterator is cancelled and the response is
+ * resumed with 503.
+ * <p>
+ * Conditional GETs are answered with {@link #resumeIfModified(Result, Request, Supplier, AsyncResponse)}, which
+ * compares the version of the records with the ETag the client has before they are read.
+ * <p>
+ * Errors are resumed as a WebApplicationException carrying the matching HTTP status:
+ * 503 when the cluster can not serve the request, 504 on a timeout, 400 for a bad query or keys and 500 otherwise.
+ */
+public class AsyncResponses {
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncResponses.class);
+    /**
+     * The maximum number of PagedIterator responses streamed at once; further ones wait for a thread
+     */
+    public static final int MAX_CONCURRENT_STREAMS = 32;
+    /**
+     * The maximum number of PagedIterator responses waiting for a thread; further ones are rejected with 503
+     */
+    public static final int MAX_QUEUED_STREAMS = 64;
+    private static final ExecutorService streamingExecutor = new ThreadPoolExecutor(MAX_CONCURRENT_STREAMS,
+            MAX_CONCURRENT_STREAMS, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(MAX_QUEUED_STREAMS),
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("artemis-stream-%d").build());
+
+    private AsyncResponses() {}
+
+    /**
+     * Resume the response with the mapped result once it is available.
+     *
+     * @param result        the result of a DAO call
+     * @param asyncResponse the suspended response
+     */
+    public static void resume(Result<?> result, AsyncResponse asyncResponse) {
+        resume(result.getMappedFuture(), asyncResponse);
+    }
+
+    /**
+     * Resume the response with the value of the future once it is available.
+     *
+     * @param future        the future
+     * @param asyncResponse the suspended response
+     */
+    public static void resume(ListenableFuture<?> future, final AsyncResponse asyncResponse) {
+        Futures.addCallback(future, new FutureCallback<Object>() {
+            public void onSuccess(Object obj) {
+                resume(obj, obj instanceof PagedIterator ? (PagedIterator<?>) obj : null, asyncResponse);
+            }
+
+            public void onFailure(Throwable throwable) {
+                asyncResponse.resume(toWebApplicationException(throwable));
+            }
+        });
+    }
+
+    /**
+     * Resume the response with a page once it is available. Unless it is the last page, the response carries a
+     * Link header with rel="next" pointing at the request URI with the cursor of the next page.
+     *
+     * @param result        the result of getRowPage or getWherePage
+     * @param uriInfo       the URI of the request
+     * @param asyncResponse the suspended response
+     */
+    public static void resume(Result<? extends Page<?>> result, final UriInfo uriInfo,
+                              final AsyncResponse asyncResponse) {
+        Futures.addCallback(result.getMappedFuture(), new FutureCallback<Page<?>>() {
+            public void onSuccess(Page<?> page) {
+                Response.ResponseBuilder response = Response.ok(page);
+
+                if (page.getNextCursor() != null) {
+                    response.link(uriInfo.getRequestUriBuilder().replaceQueryParam("cursor", page.getNextCursor())
+                            .build(), "next");
+                }
+                asyncResponse.resume(response.build());
+            }
+
+            public void onFailure(Throwable throwable) {
+                asyncResponse.resume(toWebApplicationException(throwable));
+            }
+        });
+    }
+
+    /**
+     * Resume the response with 304 Not Modified if the records the client has are still current, or else with the
+     * records, read only then, along with their ETag and Last-Modified headers.
+     * <p>
+     * The version is compared with the If-None-Match header of the request, so a client polling unchanged records
+     * costs a query of their keys and write times only, and no entity is read or serialized. If-Modified-Since is
+     * ignored, as the last modified date does not move when a column is deleted.
+     *
+     * @param version       the result of getRowVersion or getWhereVersion for the records read
+     * @param request       the request
+     * @param read          makes the DAO call reading the records, called only if they were modified
+     * @param asyncResponse the suspended response
+     */
+    public static void resumeIfModified(Result<DataVersion> version, final Request request,
+                                        final Supplier<? extends Result<?>> read, final AsyncResponse asyncResponse) {
+        Futures.addCallback(version.getMappedFuture(), new FutureCallback<DataVersion>() {
+            public void onSuccess(DataVersion dataVersion) {
+                final EntityTag entityTag = new EntityTag(dataVersion.getTag(), true);
+                final Date lastModified = dataVersion.getLastModified();
+                Response.ResponseBuilder notModified = request.evaluatePreconditions(entityTag);
+
+                if (notModified != null) {
+                    asyncResponse.resume(notModified.tag(entityTag).lastModified(lastModified).build());
+                    return;
+                }
+                Futures.addCallback(read.get().getMappedFuture(), new FutureCallback<Object>() {
+                    public void onSuccess(Object obj) {
+                        resume(Response.ok(obj).tag(entityTag).lastModified(lastModified).build(),
+                                obj instanceof PagedIterator ? (PagedIterator<?>) obj : null, asyncResponse);
+                    }
+
+                    public void onFailure(Throwable throwable) {
+                        asyncResponse.resume(toWebApplicationException(throwable));
+                    }
+                });
+            }
+
+            public void onFailure(Throwable throwable) {
+                asyncResponse.resume(toWebApplicationException(throwable));
+            }
+        });
+    }
+
+    private static void resume(final Object response, PagedIterator<?> iterator, final AsyncResponse asyncResponse) {
+        if (iterator != null) {
+            // Writing waits on further pages, which must not happen on the driver's I/O thread
+            try {
+                streamingExecutor.execute(new Runnable() {
+                    public void run() {
+                        asyncResponse.resume(response);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                LOG.warn("Too many rows being streamed, rejecting the request");
+                iterator.cancel();
+                asyncResponse.resume(new WebApplicationException(e, Response.Status.SERVICE_UNAVAILABLE));
+            }
+        } else {
+            asyncResponse.resume(response);
+        }
+    }
+
+    /**
+     * Maps an error raised while reading or writing Cassandra to an HTTP status.
+     *
+     * @param throwable the error
+     * @return the exception to resume the response with
+     */
+    public static WebApplicationException toWebApplicationException(Throwable throwable) {
+        Throwable cause = throwable;
+        Response.Status status;
+
+        if (throwable instanceof WebApplicationException) {
+            return (WebApplicationException) throwable;
+        }
+        while ((cause instanceof ResultAccessException || cause instanceof ExecutionException) &&
+                cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+
+        if (cause instanceof NoHostAvailableException || cause instanceof UnavailableException ||
+                cause instanceof OverloadedException || cause instanceof BootstrappingException) {
+            status = Response.Status.SERVICE_UNAVAILABLE;
+        } else if (cause instanceof QueryTimeoutException) {
+            status = Response.Status.GATEWAY_TIMEOUT;
+        } else if (cause instanceof QueryValidationException || cause instanceof InvalidTypeException) {
+            status = Response.Status.BAD_REQUEST;
+        } else if (throwable instanceof ResultAccessException && !(cause instanceof DriverException)) {
+            status = Response.Status.BAD_REQUEST;
+        } else {
+            status = Response.Status.INTERNAL_SERVER_ERROR;
+        }
+        if (status == Response.Status.INTERNAL_SERVER_ERROR) {
+            LOG.error("Request failed", throwable);
+        } else {
+            LOG.debug("Request failed with " + status, throwable);
+        }
+
+        return new WebApplicationException(throwable, status);
+    }
+}
@@ -0,0 +1,69 @@
+package com.comcast.artemis.jersey;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes entities as Smile or CBOR, the binary encodings of the Jackson data model, with the mappers of
+ * the application. Any type the JSON provider handles can be sent in either format.
+ */
+@Produces({ObjectMappers.APPLICATION_SMILE, ObjectMappers.APPLICATION_CBOR})
+@Consumes({ObjectMappers.APPLICATION_SMILE, ObjectMappers.APPLICATION_CBOR})
+public class BinaryJacksonProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+    private final ObjectMappers objectMappers;
+
+    BinaryJacksonProvider(ObjectMappers objectMappers) {
+        this.objectMappers = objectMappers;
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinary(type, mediaType);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream)
+            throws IOException, WebApplicationException {
+        ObjectMapper mapper = objectMappers.forMediaType(mediaType);
+        JavaType javaType = mapper.getTypeFactory().constructType(genericType == null ? type : genericType);
+
+        return mapper.reader(javaType).readValue(entityStream);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinary(type, mediaType);
+    }
+
+    @Override
+    public long getSize(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        objectMappers.forMediaType(mediaType).writeValue(entityStream, value);
+    }
+
+    private static boolean isBinary(Class<?> type, MediaType mediaType) {
+        return (ObjectMappers.isSmile(mediaType) || ObjectMappers.isCbor(mediaType)) &&
+                !InputStream.class.isAssignableFrom(type) && !byte[].class.equals(type) &&
+                !String.class.equals(type);
+    }
+}
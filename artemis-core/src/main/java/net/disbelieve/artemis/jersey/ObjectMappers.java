@@ -0,0 +1,79 @@
+package com.comcast.artemis.jersey;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ContextResolver;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The ObjectMappers of one application, one per entity format, all configured alike by
+ * ArtemisApplication.configureObjectMapper. An ObjectMapper is bound to the factory of its format, so the formats can
+ * not share a single instance.
+ * <p>
+ * As a ContextResolver it hands the JSON mapper to the Jackson JSON provider.
+ */
+@Produces(MediaType.APPLICATION_JSON)
+public class ObjectMappers implements ContextResolver<ObjectMapper> {
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE_TYPE = new MediaType("application", "x-jackson-smile");
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final MediaType APPLICATION_CBOR_TYPE = new MediaType("application", "cbor");
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper smile = new ObjectMapper(new SmileFactory());
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+    ObjectMappers() {
+        for (ObjectMapper mapper : getAll()) {
+            // Entity streams belong to the container
+            mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            mapper.getFactory().disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        }
+    }
+
+    /**
+     * @return the JSON, Smile and CBOR mappers
+     */
+    public List<ObjectMapper> getAll() {
+        return Arrays.asList(json, smile, cbor);
+    }
+
+    /**
+     * @param mediaType the media type of an entity
+     * @return the mapper of the Smile or CBOR media type, or the JSON mapper for any other
+     */
+    public ObjectMapper forMediaType(MediaType mediaType) {
+        if (isSmile(mediaType)) {
+            return smile;
+        } else if (isCbor(mediaType)) {
+            return cbor;
+        }
+
+        return json;
+    }
+
+    @Override
+    public ObjectMapper getContext(Class<?> type) {
+        return json;
+    }
+
+    static boolean isSmile(MediaType mediaType) {
+        return isType(mediaType, APPLICATION_SMILE_TYPE);
+    }
+
+    static boolean isCbor(MediaType mediaType) {
+        return isType(mediaType, APPLICATION_CBOR_TYPE);
+    }
+
+    // Wildcards do not count, they are answered with JSON
+    private static boolean isType(MediaType mediaType, MediaType binaryType) {
+        return mediaType != null && binaryType.getType().equalsIgnoreCase(mediaType.getType()) &&
+                binaryType.getSubtype().equalsIgnoreCase(mediaType.getSubtype());
+    }
+}
@@ -0,0 +1,34 @@
+package com.comcast.artemis.jersey;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.QueryParam;
+
+/**
+ * The ?cursor=&limit= query parameters of a paged resource, to be injected with @BeanParam and passed to
+ * getRowPage or getWherePage.
+ */
+public class PageParams {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    @QueryParam("cursor")
+    private String cursor;
+
+    @QueryParam("limit")
+    @DefaultValue("" + DEFAULT_LIMIT)
+    private int limit;
+
+    /**
+     * @return the cursor of the requested page, or null for the first page
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * @return the requested page size, brought within 1 and MAX_LIMIT
+     */
+    public int getLimit() {
+        return Math.min(Math.max(limit, 1), MAX_LIMIT);
+    }
+}
@@ -0,0 +1,87 @@
+package com.comcast.artemis.jersey;
+
+import com.comcast.artemis.cassandra.data.PagedIterator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes a PagedIterator as a JSON array, or its Smile or CBOR encoding, one row at a time, as the driver pages
+ * arrive.
+ * <p>
+ * Only the current and the next page are ever held in memory, and the output is flushed whenever the rows fetched so
+ * far have been written, so the client receives the first page before the last one is read. Resources return
+ * the Result of getRowIterator, getTableIterator or getWhereIterator through AsyncResponses.
+ * <p>
+ * Once the response has started its status can no longer change. If the client disconnects or a page can not be
+ * fetched, paging is cancelled and the error is rethrown, so the connection is aborted and the client sees an
+ * incomplete array rather than a short but valid one.
+ */
+@Produces({MediaType.APPLICATION_JSON, ObjectMappers.APPLICATION_SMILE, ObjectMappers.APPLICATION_CBOR})
+public class PagedIteratorWriter implements MessageBodyWriter<PagedIterator<?>> {
+    private static final Logger LOG = LoggerFactory.getLogger(PagedIteratorWriter.class);
+    private final ObjectMappers objectMappers;
+
+    PagedIteratorWriter(ObjectMappers objectMappers) {
+        this.objectMappers = objectMappers;
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return PagedIterator.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public long getSize(PagedIterator<?> iterator, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType) {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(PagedIterator<?> iterator, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException, WebApplicationException {
+        ObjectMapper mapper = objectMappers.forMediaType(mediaType);
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = mapper.getFactory().createGenerator(entityStream);
+
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        try {
+            generator.writeStartArray();
+
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+
+                // Flush before hasNext() waits on the next page
+                if (iterator.getAvailableWithoutFetching() == 0) {
+                    generator.flush();
+                }
+            }
+            generator.writeEndArray();
+            generator.flush();
+        } catch (IOException e) {
+            LOG.debug("Client went away while streaming rows", e);
+            iterator.cancel();
+            throw e;
+        } catch (RuntimeException e) {
+            LOG.error("Could not stream rows", e);
+            iterator.cancel();
+            throw e;
+        }
+    }
+
+}
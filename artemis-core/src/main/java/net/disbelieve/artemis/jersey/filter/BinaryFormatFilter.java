@@ -0,0 +1,76 @@
+package com.comcast.artemis.jersey.filter;
+
+import com.comcast.artemis.jersey.ObjectMappers;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Lets resources that produce and consume JSON be called with Smile or CBOR instead, without changing them.
+ * <p>
+ * A request whose Content-Type, or whose preferred Accept type, is Smile or CBOR is matched as if it were JSON. The
+ * entity is then read, and the JSON response written, in the binary format requested.
+ */
+@PreMatching
+public class BinaryFormatFilter implements ContainerRequestFilter, ReaderInterceptor, WriterInterceptor {
+    private static final String REQUEST_TYPE = BinaryFormatFilter.class.getName() + ".requestType";
+    private static final String RESPONSE_TYPE = BinaryFormatFilter.class.getName() + ".responseType";
+
+    @Override
+    public void filter(ContainerRequestContext containerRequestContext) throws IOException {
+        MediaType contentType = containerRequestContext.getMediaType();
+        List<MediaType> acceptableTypes = containerRequestContext.getAcceptableMediaTypes();
+
+        if (isBinary(contentType)) {
+            containerRequestContext.setProperty(REQUEST_TYPE, contentType);
+            containerRequestContext.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+        }
+        // The acceptable types are sorted by preference
+        if (!acceptableTypes.isEmpty() && isBinary(acceptableTypes.get(0))) {
+            containerRequestContext.setProperty(RESPONSE_TYPE, acceptableTypes.get(0));
+            containerRequestContext.getHeaders().putSingle(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    @Override
+    public Object aroundReadFrom(ReaderInterceptorContext context) throws IOException {
+        MediaType requestType = (MediaType) context.getProperty(REQUEST_TYPE);
+
+        if (requestType != null && MediaType.APPLICATION_JSON_TYPE.isCompatible(context.getMediaType())) {
+            context.setMediaType(requestType);
+            context.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, requestType.toString());
+        }
+
+        return context.proceed();
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        MediaType responseType = (MediaType) context.getProperty(RESPONSE_TYPE);
+
+        if (responseType != null && MediaType.APPLICATION_JSON_TYPE.isCompatible(context.getMediaType())) {
+            context.setMediaType(responseType);
+            context.getHeaders().putSingle(HttpHeaders.CONTENT_TYPE, responseType);
+            context.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        context.proceed();
+    }
+
+    private boolean isBinary(MediaType mediaType) {
+        return ObjectMappers.APPLICATION_SMILE_TYPE.equals(strip(mediaType)) ||
+                ObjectMappers.APPLICATION_CBOR_TYPE.equals(strip(mediaType));
+    }
+
+    private MediaType strip(MediaType mediaType) {
+        return mediaType == null ? null : new MediaType(mediaType.getType(), mediaType.getSubtype());
+    }
+}
@@ -1,40 +1,44 @@
 package com.comcast.artemis.jersey.filter;
 
-import com.comcast.artemis.jmx.CassandraMetadataMXBeanImpl;
-import com.comcast.artemis.jmx.MXBeansManager;
+import com.comcast.artemis.cassandra.ConsistencyLevels;
+import com.datastax.driver.core.ConsistencyLevel;
 
 import javax.ws.rs.container.ContainerRequestContext;
 import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
 import java.io.IOException;
 
 /**
  * Created by kmatth002c on 1/6/2015.
+ * <p>
+ * Overrides the consistency levels for the current request only. The overrides are held by the request thread, so
+ * concurrent requests do not see each other's levels, and are removed once the response is filtered, so later work on
+ * a pooled thread does not inherit them.
  */
-public class CassandraConsistencyLevelFilter implements ContainerRequestFilter {
+public class CassandraConsistencyLevelFilter implements ContainerRequestFilter, ContainerResponseFilter {
 
     @Override
     public void filter(ContainerRequestContext containerRequestContext) throws IOException {
-        String cassandraConsistencyLevel;
+        ConsistencyLevels.setRequestOverrides(
+                toConsistencyLevel(containerRequestContext.getHeaderString("CASSANDRA_READ_CONSISTENCY")),
+                toConsistencyLevel(containerRequestContext.getHeaderString("CASSANDRA_WRITE_CONSISTENCY")));
+    }
 
-        if ((cassandraConsistencyLevel = containerRequestContext.getHeaderString("CASSANDRA_WRITE_CONSISTENCY")) != null) {
-            MXBeansManager.setMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.WRITE_CONSISTENCY_LEVEL_OVERRIDE.toString(),
-                    cassandraConsistencyLevel);
-        } else {
-            MXBeansManager.setMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.WRITE_CONSISTENCY_LEVEL_OVERRIDE.toString(),
-                    MXBeansManager.getMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                            CassandraMetadataMXBeanImpl.Attributes.WRITE_CONSISTENCY_LEVEL.toString()).toString());
-        }
-        if ((cassandraConsistencyLevel = containerRequestContext.getHeaderString("CASSANDRA_READ_CONSISTENCY")) != null) {
-            MXBeansManager.setMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.READ_CONSISTENCY_LEVEL_OVERRIDE.toString(),
-                    cassandraConsistencyLevel);
-        } else {
-            MXBeansManager.setMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                    CassandraMetadataMXBeanImpl.Attributes.READ_CONSISTENCY_LEVEL_OVERRIDE.toString(),
-                    MXBeansManager.getMXBeanAttribute(CassandraMetadataMXBeanImpl.class,
-                            CassandraMetadataMXBeanImpl.Attributes.READ_CONSISTENCY_LEVEL.toString()).toString());
+    @Override
+    public void filter(ContainerRequestContext containerRequestContext,
+                       ContainerResponseContext containerResponseContext) throws IOException {
+        ConsistencyLevels.clearRequestOverrides();
+    }
+
+    private ConsistencyLevel toConsistencyLevel(String cassandraConsistencyLevel) {
+        if (cassandraConsistencyLevel != null) {
+            try {
+                return ConsistencyLevel.valueOf(cassandraConsistencyLevel.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
         }
+        return null;
     }
 }
@@ -0,0 +1,205 @@
+package com.comcast.artemis.jersey.filter;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Priorities;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses response entities with gzip or deflate, as accepted by the client, once they exceed a size threshold.
+ * <p>
+ * The start of the entity is buffered up to the threshold, so smaller entities, which gain little from compression,
+ * are sent as they are. Larger ones, streamed ones included, are compressed as they are written and every flush of
+ * the writer still reaches the client.
+ */
+@Priority(Priorities.ENTITY_CODER)
+public class CompressionFilter implements ContainerRequestFilter, WriterInterceptor {
+    /**
+     * The size from which entities are compressed, unless configured otherwise
+     */
+    public static final int DEFAULT_THRESHOLD = 1024;
+    private static final String ENCODING = CompressionFilter.class.getName() + ".encoding";
+    private static final int BUFFER_SIZE = 8192;
+    private final int threshold;
+
+    public CompressionFilter() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold the size in bytes above which entities are compressed
+     */
+    public CompressionFilter(int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void filter(ContainerRequestContext containerRequestContext) throws IOException {
+        String encoding = getEncoding(containerRequestContext.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+
+        if (encoding != null) {
+            containerRequestContext.setProperty(ENCODING, encoding);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        String encoding = (String) context.getProperty(ENCODING);
+        ThresholdOutputStream outputStream;
+
+        if (encoding == null || context.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            context.proceed();
+            return;
+        }
+        context.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        outputStream = new ThresholdOutputStream(context.getOutputStream(), context.getHeaders(), encoding, threshold);
+        context.setOutputStream(outputStream);
+        context.proceed();
+        outputStream.finish();
+    }
+
+    /**
+     * Picks the encoding of the response from an Accept-Encoding header, gzip being preferred when both are
+     * equally acceptable.
+     *
+     * @param acceptEncoding the header
+     * @return gzip, deflate or null if neither is accepted
+     */
+    static String getEncoding(String acceptEncoding) {
+        String encoding = null;
+        float encodingQuality = 0;
+        String[] parts;
+        String coding;
+        float quality;
+
+        if (acceptEncoding == null) {
+            return null;
+        }
+        for (String element : acceptEncoding.split(",")) {
+            parts = element.split(";");
+            coding = parts[0].trim().toLowerCase();
+            quality = 1;
+
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Float.parseFloat(parameter.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            // An explicit gzip, even with q=0, takes precedence over the wildcard
+            if ((coding.equals("*") && !acceptEncoding.toLowerCase().contains("gzip")) || coding.equals("x-gzip")) {
+                coding = "gzip";
+            }
+            if ((coding.equals("gzip") || coding.equals("deflate")) && (quality > encodingQuality ||
+                    (quality == encodingQuality && coding.equals("gzip") && encoding != null))) {
+                encoding = coding;
+                encodingQuality = quality;
+            }
+        }
+
+        return encoding;
+    }
+
+    /**
+     * Buffers the entity until it exceeds the threshold, then sets Content-Encoding, which is sent with the first
+     * bytes written to the underlying stream, and compresses the rest of the entity.
+     */
+    private static class ThresholdOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final MultivaluedMap<String, Object> headers;
+        private final String encoding;
+        private final int threshold;
+        private ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private DeflaterOutputStream compressed;
+
+        ThresholdOutputStream(OutputStream out, MultivaluedMap<String, Object> headers, String encoding,
+                              int threshold) {
+            this.out = out;
+            this.headers = headers;
+            this.encoding = encoding;
+            this.threshold = threshold;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (compressed == null && buffer.size() + len > threshold) {
+                startCompression();
+            }
+            if (compressed != null) {
+                compressed.write(b, off, len);
+            } else {
+                buffer.write(b, off, len);
+            }
+        }
+
+        /**
+         * Flushes the compressed stream only: writers flush after small entities too, which are kept in the buffer
+         * until it is known whether they exceed the threshold.
+         */
+        @Override
+        public void flush() throws IOException {
+            if (compressed != null) {
+                compressed.flush();
+            }
+        }
+
+        /**
+         * Writes the end of the entity, without closing the underlying stream.
+         */
+        void finish() throws IOException {
+            if (compressed != null) {
+                compressed.close();
+            } else {
+                buffer.writeTo(out);
+                buffer = null;
+            }
+        }
+
+        private void startCompression() throws IOException {
+            OutputStream target = new OutputStream() {
+                public void write(int b) throws IOException {
+                    out.write(b);
+                }
+
+                public void write(byte[] b, int off, int len) throws IOException {
+                    out.write(b, off, len);
+                }
+
+                public void flush() throws IOException {
+                    out.flush();
+                }
+
+                // Closing the compressed stream releases its Deflater but the container closes the entity stream
+                public void close() throws IOException {
+                    out.flush();
+                }
+            };
+
+            headers.putSingle(HttpHeaders.CONTENT_ENCODING, encoding);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            compressed = encoding.equals("gzip") ? new GZIPOutputStream(target, BUFFER_SIZE, true) :
+                    new DeflaterOutputStream(target, true);
+            buffer.writeTo(compressed);
+            buffer = null;
+        }
+    }
+}
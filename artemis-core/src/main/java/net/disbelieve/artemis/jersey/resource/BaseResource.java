@@ -1,7 +1,12 @@
 package com.comcast.artemis.jersey.resource;
 
 import com.comcast.artemis.cassandra.CassandraConnect;
+import com.comcast.artemis.jersey.AsyncResponses;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.utils.UUIDs;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,7 +19,6 @@ import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.UUID;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 
@@ -29,49 +33,38 @@ public class BaseResource {
     @GET
     @Path("heartBeat")
     public void heartBeat(@Suspended final AsyncResponse asyncResponse) {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                long nowMillis = 0;
-                try {
-                    UUID now = CassandraConnect.getSession().execute("select now() as now from System.local").one().getUUID("now");
-                    nowMillis = UUIDs.unixTimestamp(now);
-                    /**MUST have finally block resume or any uncaught exceptions will leave the browser request hung*/
-                } finally {
-                    asyncResponse.resume(nowMillis);
-                }
+        ResultSetFuture future = CassandraConnect.getSession().executeAsync("select now() as now from System.local");
+
+        AsyncResponses.resume(Futures.transform(future, new Function<ResultSet, Long>() {
+            public Long apply(ResultSet resultSet) {
+                return UUIDs.unixTimestamp(resultSet.one().getUUID("now"));
             }
-        }).start();
+        }), asyncResponse);
     }
 
     @GET
     @Path("version")
     @Produces("text/plain")
     public void version(@Suspended final AsyncResponse asyncResponse) {
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                StringBuilder stringBuffer = new StringBuilder();
-                try {
-                    InputStream inputStream = servletContext.getResourceAsStream("/META-INF/MANIFEST.MF");
-                    Manifest manifest = new Manifest(inputStream);
-                    Attributes attributes = manifest.getMainAttributes();
-                    stringBuffer.append(attributes.getValue("Implementation-Title"));
-                    stringBuffer.append("\n");
-                    stringBuffer.append(attributes.getValue("Implementation-Version"));
-                    stringBuffer.append("\n");
-                    stringBuffer.append(attributes.getValue("Implementation-Branch"));
-                    stringBuffer.append("\n");
-                    stringBuffer.append(attributes.getValue("Implementation-Build"));
-                    stringBuffer.append("\n");
-                    stringBuffer.append(attributes.getValue("Implementation-Date"));
-                } catch (IOException e) {
-                    LOG.warn("Count not read MANIFEST.MF", e);
-                /**MUST have finally block resume or any uncaught exceptions will leave the browser request hung*/
-                } finally {
-                    asyncResponse.resume(stringBuffer.toString());
-                }
-            }
-        }).start();
+        StringBuilder stringBuffer = new StringBuilder();
+        try {
+            InputStream inputStream = servletContext.getResourceAsStream("/META-INF/MANIFEST.MF");
+            Manifest manifest = new Manifest(inputStream);
+            Attributes attributes = manifest.getMainAttributes();
+            stringBuffer.append(attributes.getValue("Implementation-Title"));
+            stringBuffer.append("\n");
+            stringBuffer.append(attributes.getValue("Implementation-Version"));
+            stringBuffer.append("\n");
+            stringBuffer.append(attributes.getValue("Implementation-Branch"));
+            stringBuffer.append("\n");
+            stringBuffer.append(attributes.getValue("Implementation-Build"));
+            stringBuffer.append("\n");
+            stringBuffer.append(attributes.getValue("Implementation-Date"));
+        } catch (IOException e) {
+            LOG.warn("Count not read MANIFEST.MF", e);
+        /**MUST have finally block resume or any uncaught exceptions will leave the browser request hung*/
+        } finally {
+            asyncResponse.resume(stringBuffer.toString());
+        }
     }
 }
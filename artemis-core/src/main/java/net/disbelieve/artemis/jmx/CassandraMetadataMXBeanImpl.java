@@ -1,5 +1,6 @@
 package com.comcast.artemis.jmx;
 
+import com.comcast.artemis.cassandra.ConsistencyLevels;
 import com.datastax.driver.core.*;
 
 /**
@@ -7,10 +8,6 @@ import com.datastax.driver.core.*;
  */
 public class CassandraMetadataMXBeanImpl implements CassandraMetadataMXBean {
     private Cluster cluster;
-    private ConsistencyLevel readConsistencyLevel;
-    private ConsistencyLevel writeConsistencyLevel;
-    private ConsistencyLevel readConsistencyLevelOverride;
-    private ConsistencyLevel writeConsistencyLevelOverride;
 
     public static enum Attributes {
         READ_CONSISTENCY_LEVEL("ReadConsistencyLevel"),
@@ -34,8 +31,8 @@ public class CassandraMetadataMXBeanImpl implements CassandraMetadataMXBean {
 
     public CassandraMetadataMXBeanImpl(Cluster cluster) {
         this.cluster = cluster;
-        this.readConsistencyLevel = cluster.getConfiguration().getQueryOptions().getConsistencyLevel();
-        this.writeConsistencyLevel = cluster.getConfiguration().getQueryOptions().getConsistencyLevel();
+        ConsistencyLevels.setReadConsistencyLevel(cluster.getConfiguration().getQueryOptions().getConsistencyLevel());
+        ConsistencyLevels.setWriteConsistencyLevel(cluster.getConfiguration().getQueryOptions().getConsistencyLevel());
     }
 
     public String getAllHosts() {
@@ -69,36 +66,48 @@ public class CassandraMetadataMXBeanImpl implements CassandraMetadataMXBean {
     }
 
     public String getReadConsistencyLevel() {
-        return readConsistencyLevelOverride == null ? readConsistencyLevel.toString() :
-                readConsistencyLevelOverride.toString();
+        ConsistencyLevel override = ConsistencyLevels.getReadConsistencyLevelOverride();
+
+        return override == null ? ConsistencyLevels.getReadConsistencyLevel().toString() : override.toString();
     }
 
     public void setReadConsistencyLevel(String consistencyLevel) {
-        readConsistencyLevel = ConsistencyLevel.valueOf(ConsistencyLevel.class, consistencyLevel);
+        ConsistencyLevels.setReadConsistencyLevel(ConsistencyLevel.valueOf(ConsistencyLevel.class, consistencyLevel));
     }
 
     public String getWriteConsistencyLevel() {
-        return writeConsistencyLevelOverride == null ? writeConsistencyLevel.toString() :
-                writeConsistencyLevelOverride.toString();
+        ConsistencyLevel override = ConsistencyLevels.getWriteConsistencyLevelOverride();
+
+        return override == null ? ConsistencyLevels.getWriteConsistencyLevel().toString() : override.toString();
     }
 
     public String getReadConsistencyLevelOverride() {
-        return readConsistencyLevelOverride.toString();
+        return String.valueOf(ConsistencyLevels.getReadConsistencyLevelOverride());
     }
 
     public String getWriteConsistencyLevelOverride() {
-        return writeConsistencyLevelOverride.toString();
+        return String.valueOf(ConsistencyLevels.getWriteConsistencyLevelOverride());
     }
 
     public void setWriteConsistencyLevel(String consistencyLevel) {
-        writeConsistencyLevel = ConsistencyLevel.valueOf(ConsistencyLevel.class, consistencyLevel);
+        ConsistencyLevels.setWriteConsistencyLevel(ConsistencyLevel.valueOf(ConsistencyLevel.class, consistencyLevel));
     }
 
     public void setReadConsistencyLevelOverride(String consistencyLevel) {
-        readConsistencyLevelOverride = ConsistencyLevel.valueOf(ConsistencyLevel.class, consistencyLevel);
+        ConsistencyLevels.setReadConsistencyLevelOverride(toConsistencyLevel(consistencyLevel));
     }
 
     public void setWriteConsistencyLevelOverride(String consistencyLevel) {
-        writeConsistencyLevelOverride = ConsistencyLevel.valueOf(ConsistencyLevel.class, consistencyLevel);
+        ConsistencyLevels.setWriteConsistencyLevelOverride(toConsistencyLevel(consistencyLevel));
+    }
+
+    /**
+     * An empty or "null" override removes it.
+     */
+    private ConsistencyLevel toConsistencyLevel(String consistencyLevel) {
+        if (consistencyLevel == null || consistencyLevel.isEmpty() || "null".equals(consistencyLevel)) {
+            return null;
+        }
+        return ConsistencyLevel.valueOf(ConsistencyLevel.class, consistencyLevel);
     }
 }
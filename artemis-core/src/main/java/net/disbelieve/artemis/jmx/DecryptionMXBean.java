@@ -0,0 +1,18 @@
+package com.comcast.artemis.jmx;
+
+/**
+ * Statistics of the decryption of @Secure fields in the rows read by one DAO.
+ */
+public interface DecryptionMXBean {
+    public String getMode();
+
+    public long getDecryptedRows();
+
+    public long getDeferredRows();
+
+    public long getParallelDecryptions();
+
+    public long getTotalDecryptTimeMillis();
+
+    public double getMeanDecryptTimeMicros();
+}
@@ -0,0 +1,22 @@
+package com.comcast.artemis.jmx;
+
+/**
+ * Statistics of the entity cache of one DAO.
+ */
+public interface EntityCacheMXBean {
+    public long getSize();
+
+    public long getHitCount();
+
+    public long getMissCount();
+
+    public double getHitRate();
+
+    public long getEvictionCount();
+
+    public long getRefreshCount();
+
+    public long getInvalidationCount();
+
+    public void invalidateAll();
+}
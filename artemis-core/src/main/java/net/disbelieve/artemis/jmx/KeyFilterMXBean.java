@@ -0,0 +1,24 @@
+package com.comcast.artemis.jmx;
+
+/**
+ * Statistics of the key filter guarding getOne in one DAO.
+ */
+public interface KeyFilterMXBean {
+    public long getAvoidedReads();
+
+    public long getPassedReads();
+
+    public long getFalsePositives();
+
+    public long getKeyCount();
+
+    public double getExpectedFalsePositiveRate();
+
+    public long getLastBuildMillis();
+
+    public boolean isBuilt();
+
+    public boolean isBuilding();
+
+    public void rebuild();
+}
@@ -0,0 +1,17 @@
+package com.comcast.artemis.jmx;
+
+import java.util.List;
+
+/**
+ * Latency, throughput and errors of the queries executed by one DAO, per operation, since the start of the interval.
+ */
+public interface LatencyMXBean {
+    public List<OperationLatency> getOperations();
+
+    public long getIntervalStartMillis();
+
+    /**
+     * Starts a new interval, discarding the statistics of the current one.
+     */
+    public void resetInterval();
+}
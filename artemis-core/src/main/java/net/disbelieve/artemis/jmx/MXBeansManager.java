@@ -24,6 +24,45 @@ public class MXBeansManager {
         }
     }
 
+    public static void registerSpeculativeExecution(Cluster cluster, String policy) {
+        try {
+            mbs.registerMBean(new SpeculativeExecutionMXBeanImpl(cluster, policy),
+                    getMXName(SpeculativeExecutionMXBeanImpl.class));
+        } catch (Exception e) {
+            LOG.error("Could not register MXBean: " + e);
+        }
+    }
+
+    public static void registerSlowQueryLog() {
+        try {
+            mbs.registerMBean(new SlowQueryLogMXBeanImpl(), getMXName(SlowQueryLogMXBeanImpl.class));
+        } catch (Exception e) {
+            LOG.error("Could not register MXBean: " + e);
+        }
+    }
+
+    /**
+     * Registers an MXBean that exists once per DAO, named after its keyspace and table.
+     *
+     * @param mxBean   the MXBean
+     * @param name     the name of the MXBean
+     * @param keyspace the keyspace of the DAO
+     * @param table    the table of the DAO
+     */
+    public static void registerMXBean(Object mxBean, String name, String keyspace, String table) {
+        try {
+            ObjectName objectName = new ObjectName(MXBeansManager.class.getPackage().getName() + ":name=" + name +
+                    ",keyspace=" + ObjectName.quote(keyspace) + ",table=" + ObjectName.quote(table));
+
+            if (mbs.isRegistered(objectName)) {
+                mbs.unregisterMBean(objectName);
+            }
+            mbs.registerMBean(mxBean, objectName);
+        } catch (Exception e) {
+            LOG.error("Could not register MXBean: " + e);
+        }
+    }
+
     public static Object getMXBeanAttribute(Class mxBean, String attribute) {
         Object obj = null;
         try {
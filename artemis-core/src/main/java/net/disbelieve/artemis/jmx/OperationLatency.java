@@ -0,0 +1,93 @@
+package com.comcast.artemis.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * The statistics of one DAO operation over an interval. Latencies are in microseconds, from the execution of the
+ * query to its response, failed queries included.
+ */
+public class OperationLatency {
+    private final String operation;
+    private final long count;
+    private final long errors;
+    private final long timeouts;
+    private final long firstPageRows;
+    private final double throughput;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long maxMicros;
+
+    @ConstructorProperties({"operation", "count", "errors", "timeouts", "firstPageRows", "throughput",
+            "meanMicros", "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public OperationLatency(String operation, long count, long errors, long timeouts, long firstPageRows,
+                            double throughput, double meanMicros, long p50Micros, long p99Micros, long p999Micros,
+                            long maxMicros) {
+        this.operation = operation;
+        this.count = count;
+        this.errors = errors;
+        this.timeouts = timeouts;
+        this.firstPageRows = firstPageRows;
+        this.throughput = throughput;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the number of queries that failed, timeouts included
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * @return the number of rows received with the first page of the responses. The further pages of iterators,
+     * scans and large rows are fetched later, as they are read, and are not counted.
+     */
+    public long getFirstPageRows() {
+        return firstPageRows;
+    }
+
+    /**
+     * @return the number of queries per second
+     */
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getP999Micros() {
+        return p999Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+}
@@ -0,0 +1,29 @@
+package com.comcast.artemis.jmx;
+
+/**
+ * Settings and counts of the slow query log, see {@link com.comcast.artemis.cassandra.SlowQueryLog}.
+ */
+public interface SlowQueryLogMXBean {
+    /**
+     * @return the latency in milliseconds from which queries are logged, negative when logging is off
+     */
+    public long getThresholdMillis();
+
+    public void setThresholdMillis(long thresholdMillis);
+
+    public double getSampleRate();
+
+    public void setSampleRate(double sampleRate);
+
+    public int getMaxPerSecond();
+
+    public void setMaxPerSecond(int maxPerSecond);
+
+    public boolean isLogValues();
+
+    public void setLogValues(boolean logValues);
+
+    public long getSlowQueries();
+
+    public long getLoggedQueries();
+}
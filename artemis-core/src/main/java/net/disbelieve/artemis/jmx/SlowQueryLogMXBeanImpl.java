@@ -0,0 +1,49 @@
+package com.comcast.artemis.jmx;
+
+import com.comcast.artemis.cassandra.SlowQueryLog;
+
+/**
+ * Exposes the settings of the slow query log, which take effect for the queries executed after they are changed.
+ */
+public class SlowQueryLogMXBeanImpl implements SlowQueryLogMXBean {
+
+    public long getThresholdMillis() {
+        return SlowQueryLog.getThresholdMillis();
+    }
+
+    public void setThresholdMillis(long thresholdMillis) {
+        SlowQueryLog.setThresholdMillis(thresholdMillis);
+    }
+
+    public double getSampleRate() {
+        return SlowQueryLog.getSampleRate();
+    }
+
+    public void setSampleRate(double sampleRate) {
+        SlowQueryLog.setSampleRate(sampleRate);
+    }
+
+    public int getMaxPerSecond() {
+        return SlowQueryLog.getMaxPerSecond();
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        SlowQueryLog.setMaxPerSecond(maxPerSecond);
+    }
+
+    public boolean isLogValues() {
+        return SlowQueryLog.isLogValues();
+    }
+
+    public void setLogValues(boolean logValues) {
+        SlowQueryLog.setLogValues(logValues);
+    }
+
+    public long getSlowQueries() {
+        return SlowQueryLog.getSlowQueries();
+    }
+
+    public long getLoggedQueries() {
+        return SlowQueryLog.getLoggedQueries();
+    }
+}
@@ -0,0 +1,14 @@
+package com.comcast.artemis.jmx;
+
+/**
+ * Speculative execution of the requests to the cluster.
+ */
+public interface SpeculativeExecutionMXBean {
+    public String getPolicy();
+
+    public long getSpeculativeExecutions();
+
+    public long getResponses();
+
+    public long getResponsesFromLaterHost();
+}
@@ -0,0 +1,37 @@
+package com.comcast.artemis.jmx;
+
+import com.comcast.artemis.cassandra.SpeculativeExecutions;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.Metrics;
+
+/**
+ * Exposes the number of speculative executions the driver started and how many of the responses to the DAOs came
+ * from a host other than the first one queried.
+ */
+public class SpeculativeExecutionMXBeanImpl implements SpeculativeExecutionMXBean {
+    private final Cluster cluster;
+    private final String policy;
+
+    public SpeculativeExecutionMXBeanImpl(Cluster cluster, String policy) {
+        this.cluster = cluster;
+        this.policy = policy;
+    }
+
+    public String getPolicy() {
+        return policy;
+    }
+
+    public long getSpeculativeExecutions() {
+        Metrics metrics = cluster.getMetrics();
+
+        return metrics == null ? 0 : metrics.getErrorMetrics().getSpeculativeExecutions().getCount();
+    }
+
+    public long getResponses() {
+        return SpeculativeExecutions.getResponses();
+    }
+
+    public long getResponsesFromLaterHost() {
+        return SpeculativeExecutions.getResponsesFromLaterHost();
+    }
+}
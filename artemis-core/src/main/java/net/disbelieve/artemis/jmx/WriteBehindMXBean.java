@@ -0,0 +1,18 @@
+package com.comcast.artemis.jmx;
+
+/**
+ * Metrics of the write-behind buffer of one DAO.
+ */
+public interface WriteBehindMXBean {
+    public int getQueueDepth();
+
+    public long getBufferedWrites();
+
+    public long getCoalescedWrites();
+
+    public long getFlushedWrites();
+
+    public long getFailedWrites();
+
+    public void flush();
+}
@@ -0,0 +1,302 @@
+package com.comcast.artemis.processor;
+
+import com.comcast.artemis.cassandra.data.ModelAccessors;
+import com.datastax.driver.mapping.EnumType;
+import com.datastax.driver.mapping.annotations.*;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * Generates a {@link com.comcast.artemis.cassandra.data.ModelAccessor} for every class annotated with @Table.
+ * <p>
+ * CassandraDAO uses the generated accessor, when there is one, to read the metadata of the model, to get the values
+ * of its primary key and to map rows, rather than reflection. Models it can not handle, for instance models with a
+ * column of a user defined type or without accessible fields, are skipped with a note and keep using reflection.
+ * <p>
+ * The processor is registered in META-INF/services, so it runs when any project depending on artemis-core compiles.
+ */
+@SupportedAnnotationTypes("com.datastax.driver.mapping.annotations.Table")
+public class ModelAccessorProcessor extends AbstractProcessor {
+    private static final Map<String, String> GETTERS = new HashMap<String, String>();
+
+    static {
+        GETTERS.put("java.lang.String", "getString");
+        GETTERS.put("java.lang.Long", "getLong");
+        GETTERS.put("java.lang.Integer", "getInt");
+        GETTERS.put("java.lang.Boolean", "getBool");
+        GETTERS.put("java.lang.Double", "getDouble");
+        GETTERS.put("java.lang.Float", "getFloat");
+        GETTERS.put("java.util.Date", "getDate");
+        GETTERS.put("java.util.UUID", "getUUID");
+        GETTERS.put("java.nio.ByteBuffer", "getBytes");
+        GETTERS.put("java.math.BigDecimal", "getDecimal");
+        GETTERS.put("java.math.BigInteger", "getVarint");
+        GETTERS.put("java.net.InetAddress", "getInet");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(Table.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                continue;
+            }
+            try {
+                generate((TypeElement) element);
+            } catch (UnsupportedModelException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        "No accessor generated, the model will be mapped by reflection: " + e.getMessage(), element);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Could not write accessor: " + e, element);
+            }
+        }
+        return false;
+    }
+
+    private void generate(TypeElement model) throws IOException, UnsupportedModelException {
+        Table table = model.getAnnotation(Table.class);
+        String modelName = model.getSimpleName().toString();
+        String accessorName = modelName + ModelAccessors.SUFFIX;
+        String packageName = processingEnv.getElementUtils().getPackageOf(model).getQualifiedName().toString();
+        List<ColumnField> columns = new ArrayList<ColumnField>();
+        SortedMap<Integer, ColumnField> partitionKey = new TreeMap<Integer, ColumnField>();
+        SortedMap<Integer, ColumnField> clusterKey = new TreeMap<Integer, ColumnField>();
+        StringBuilder source = new StringBuilder();
+        Writer writer;
+
+        if (model.getNestingKind() != NestingKind.TOP_LEVEL) {
+            throw new UnsupportedModelException("it is not a top level class");
+        }
+        for (VariableElement field : ElementFilter.fieldsIn(model.getEnclosedElements())) {
+            ColumnField column;
+
+            if (field.getModifiers().contains(Modifier.STATIC) || field.getModifiers().contains(Modifier.TRANSIENT) ||
+                    field.getAnnotation(Transient.class) != null) {
+                continue;
+            }
+            column = new ColumnField(model, field);
+            columns.add(column);
+
+            if (field.getAnnotation(PartitionKey.class) != null) {
+                partitionKey.put(field.getAnnotation(PartitionKey.class).value(), column);
+            } else if (field.getAnnotation(ClusteringColumn.class) != null) {
+                clusterKey.put(field.getAnnotation(ClusteringColumn.class).value(), column);
+            }
+        }
+        List<ColumnField> primaryKey = new ArrayList<ColumnField>(partitionKey.values());
+        primaryKey.addAll(clusterKey.values());
+
+        if (!packageName.isEmpty()) {
+            source.append("package ").append(packageName).append(";\n\n");
+        }
+        source.append("import com.comcast.artemis.cassandra.data.ColumnIndexes;\n")
+                .append("import com.comcast.artemis.cassandra.data.ModelAccessor;\n")
+                .append("import com.datastax.driver.core.Row;\n\n")
+                .append("import java.util.Arrays;\n")
+                .append("import java.util.Collections;\n")
+                .append("import java.util.List;\n\n")
+                .append("/**\n * Generated by ").append(getClass().getName()).append(", do not edit.\n */\n")
+                .append("public class ").append(accessorName).append(" implements ModelAccessor<")
+                .append(modelName).append("> {\n")
+                .append("    private static final List<String> PARTITION_KEY = ").append(names(partitionKey.values())).append(";\n")
+                .append("    private static final List<String> CLUSTER_KEY = ").append(names(clusterKey.values())).append(";\n")
+                .append("    private static final List<String> PRIMARY_KEY = ").append(names(primaryKey)).append(";\n")
+                .append("    private static final List<String> COLUMNS = ").append(names(columns)).append(";\n")
+                .append("    private volatile ColumnIndexes columnIndexes;\n\n")
+                .append("    public String getKeyspace() {\n        return ")
+                .append(literal(table.caseSensitiveKeyspace() ? "\"" + table.keyspace() + "\"" : table.keyspace()))
+                .append(";\n    }\n\n")
+                .append("    public String getTable() {\n        return ")
+                .append(literal(table.caseSensitiveTable() ? "\"" + table.name() + "\"" : table.name()))
+                .append(";\n    }\n\n")
+                .append("    public List<String> getPartitionKey() {\n        return PARTITION_KEY;\n    }\n\n")
+                .append("    public List<String> getClusterKey() {\n        return CLUSTER_KEY;\n    }\n\n")
+                .append("    public List<String> getPrimaryKey() {\n        return PRIMARY_KEY;\n    }\n\n")
+                .append("    public Object[] getPrimaryKeyValues(").append(modelName).append(" model) {\n")
+                .append("        return new Object[]{");
+
+        for (int i = 0; i < primaryKey.size(); i++) {
+            source.append(i == 0 ? "" : ", ").append(primaryKey.get(i).get("model"));
+        }
+        source.append("};\n    }\n\n")
+                .append("    public ").append(modelName).append(" map(Row row) {\n")
+                .append("        ColumnIndexes columnIndexes = this.columnIndexes;\n")
+                .append("        ").append(modelName).append(" model = new ").append(modelName).append("();\n")
+                .append("        int index;\n\n")
+                .append("        if (columnIndexes == null || !columnIndexes.isFor(row.getColumnDefinitions())) {\n")
+                .append("            this.columnIndexes = columnIndexes = ")
+                .append("new ColumnIndexes(row.getColumnDefinitions(), COLUMNS);\n")
+                .append("        }\n");
+
+        // Columns are looked up by name once per ColumnDefinitions, then read by index
+        for (int i = 0; i < columns.size(); i++) {
+            source.append("        if ((index = columnIndexes.get(").append(i).append(")) >= 0 && !row.isNull(index)) {\n")
+                    .append("            ").append(columns.get(i).set("model", columns.get(i).read("row", "index")))
+                    .append(";\n        }\n");
+        }
+        source.append("        return model;\n    }\n}\n");
+
+        writer = processingEnv.getFiler().createSourceFile(
+                packageName.isEmpty() ? accessorName : packageName + "." + accessorName, model).openWriter();
+        try {
+            writer.write(source.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private String names(Collection<ColumnField> columns) {
+        StringBuilder names = new StringBuilder("Collections.unmodifiableList(Arrays.asList(");
+        boolean first = true;
+
+        if (columns.isEmpty()) {
+            return "Collections.<String>emptyList()";
+        }
+        for (ColumnField column : columns) {
+            names.append(first ? "" : ", ").append(literal(column.name));
+            first = false;
+        }
+        return names.append("))").toString();
+    }
+
+    private String literal(String value) {
+        return processingEnv.getElementUtils().getConstantExpression(value).toString();
+    }
+
+    private String erasure(TypeMirror type) {
+        return processingEnv.getTypeUtils().erasure(type).toString();
+    }
+
+    /**
+     * A mapped field and how to read and write it.
+     */
+    private class ColumnField {
+        private final VariableElement field;
+        private final String name;
+        private final String getter;
+        private final String setter;
+
+        ColumnField(TypeElement model, VariableElement field) throws UnsupportedModelException {
+            String fieldName = field.getSimpleName().toString();
+            String capitalized = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+            Column column = field.getAnnotation(Column.class);
+            String getter = null, setter = null;
+
+            for (ExecutableElement method : ElementFilter.methodsIn(model.getEnclosedElements())) {
+                String methodName = method.getSimpleName().toString();
+
+                if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                    continue;
+                }
+                if (method.getParameters().isEmpty() &&
+                        (methodName.equals("get" + capitalized) || methodName.equals("is" + capitalized))) {
+                    getter = methodName;
+                } else if (method.getParameters().size() == 1 && methodName.equals("set" + capitalized)) {
+                    setter = methodName;
+                }
+            }
+            if ((getter == null || setter == null) && field.getModifiers().contains(Modifier.PRIVATE)) {
+                throw new UnsupportedModelException(fieldName + " has no getter or setter");
+            }
+            this.field = field;
+            this.getter = getter;
+            this.setter = setter;
+
+            if (column == null) {
+                this.name = fieldName;
+            } else {
+                this.name = column.caseSensitive() ? "\"" + column.name() + "\"" : column.name();
+            }
+            // Fails early for the types read() does not handle
+            read("row", "index");
+        }
+
+        String get(String model) {
+            return getter == null ? model + "." + field.getSimpleName() : model + "." + getter + "()";
+        }
+
+        String set(String model, String value) {
+            return setter == null ? model + "." + field.getSimpleName() + " = " + value :
+                    model + "." + setter + "(" + value + ")";
+        }
+
+        String read(String row, String name) throws UnsupportedModelException {
+            TypeMirror type = field.asType();
+            String typeName = erasure(type);
+            Element typeElement;
+
+            switch (type.getKind()) {
+                case LONG:
+                    return row + ".getLong(" + name + ")";
+                case INT:
+                    return row + ".getInt(" + name + ")";
+                case BOOLEAN:
+                    return row + ".getBool(" + name + ")";
+                case DOUBLE:
+                    return row + ".getDouble(" + name + ")";
+                case FLOAT:
+                    return row + ".getFloat(" + name + ")";
+                case DECLARED:
+                    break;
+                default:
+                    throw new UnsupportedModelException(field.getSimpleName() + " is of unsupported type " + type);
+            }
+            if (GETTERS.containsKey(typeName)) {
+                return row + "." + GETTERS.get(typeName) + "(" + name + ")";
+            }
+            typeElement = processingEnv.getTypeUtils().asElement(type);
+
+            if (typeElement.getKind() == ElementKind.ENUM) {
+                Enumerated enumerated = field.getAnnotation(Enumerated.class);
+
+                if (enumerated != null && enumerated.value() == EnumType.ORDINAL) {
+                    return typeName + ".values()[" + row + ".getInt(" + name + ")]";
+                }
+                return typeName + ".valueOf(" + row + ".getString(" + name + "))";
+            }
+            if (typeName.equals("java.util.List") || typeName.equals("java.util.Set")) {
+                return row + (typeName.equals("java.util.List") ? ".getList(" : ".getSet(") + name + ", " +
+                        elementClass(type, 0) + ")";
+            }
+            if (typeName.equals("java.util.Map")) {
+                return row + ".getMap(" + name + ", " + elementClass(type, 0) + ", " + elementClass(type, 1) + ")";
+            }
+            throw new UnsupportedModelException(field.getSimpleName() + " is of unsupported type " + type);
+        }
+
+        private String elementClass(TypeMirror type, int index) throws UnsupportedModelException {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+
+            if (arguments.size() <= index || arguments.get(index).getKind() != TypeKind.DECLARED ||
+                    !GETTERS.containsKey(erasure(arguments.get(index)))) {
+                throw new UnsupportedModelException(field.getSimpleName() + " is a collection of an unsupported type");
+            }
+            return erasure(arguments.get(index)) + ".class";
+        }
+    }
+
+    private static class UnsupportedModelException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedModelException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package net.disbelieve.artemis.security.encryption;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+
+/**
+ * Keeps one AES/CBC Cipher per thread. Cipher.getInstance is costly and a Cipher is not thread-safe, so each
+ * thread reuses its own and initializes it for every operation.
+ */
+class Ciphers {
+    static final String TRANSFORMATION = "AES/CBC/PKCS5Padding";
+    static final int IV_LENGTH = 16;
+    private static final ThreadLocal<Cipher> CIPHER = new ThreadLocal<Cipher>() {
+        @Override
+        protected Cipher initialValue() {
+            try {
+                return Cipher.getInstance(TRANSFORMATION);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Could not create " + TRANSFORMATION + " cipher", e);
+            }
+        }
+    };
+
+    static Cipher get() {
+        return CIPHER.get();
+    }
+}
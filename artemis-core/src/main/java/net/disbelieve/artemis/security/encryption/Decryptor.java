@@ -1,13 +1,8 @@
 package net.disbelieve.artemis.security.encryption;
 
-import sun.misc.BASE64Decoder;
-
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.security.Key;
-import java.security.KeyStore;
+import javax.xml.bind.DatatypeConverter;
 
 /**
  * Created by kmatth002c on 2/2/2015.
@@ -15,26 +10,15 @@ import java.security.KeyStore;
 public class Decryptor {
     public String decrypt(String ciphertext) throws Exception
     {
-        InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream("aes-keystore.jck");
-        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-        KeyStore keystore = KeyStore.getInstance("JCEKS");
-        keystore.load(inputStream, "mystorepass".toCharArray());
-        Key key = keystore.getKey("jceksaes", "mykeypass".toCharArray());
+        Cipher cipher = Ciphers.get();
         byte[] cipherTextBytes;
-        byte[] iv = new byte[16];
-        byte[] cipherBytes;
-
 
-        if (!keystore.containsAlias("jceksaes")) {
-            throw new RuntimeException("Alias for key not found");
-        }
-        cipherTextBytes = new BASE64Decoder().decodeBuffer(ciphertext);
-        ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(cipherTextBytes);
-        byteArrayInputStream.read(iv);
-        cipherBytes = new byte[byteArrayInputStream.available()];
-        byteArrayInputStream.read(cipherBytes);
-        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+        // The decoder skips the line breaks older tokens were encoded with
+        cipherTextBytes = DatatypeConverter.parseBase64Binary(ciphertext);
+        cipher.init(Cipher.DECRYPT_MODE, KeyMaterial.getKey(),
+                new IvParameterSpec(cipherTextBytes, 0, Ciphers.IV_LENGTH));
 
-        return new String(cipher.doFinal(cipherBytes));
+        return new String(cipher.doFinal(cipherTextBytes, Ciphers.IV_LENGTH,
+                cipherTextBytes.length - Ciphers.IV_LENGTH));
     }
 }
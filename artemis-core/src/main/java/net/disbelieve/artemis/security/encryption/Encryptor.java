@@ -1,13 +1,7 @@
 package net.disbelieve.artemis.security.encryption;
 
-import sun.misc.BASE64Encoder;
-
 import javax.crypto.Cipher;
-import java.io.ByteArrayOutputStream;
-import java.io.InputStream;
-import java.security.Key;
-import java.security.KeyStore;
-import java.util.Enumeration;
+import javax.xml.bind.DatatypeConverter;
 
 /**
  * Created by kmatth002c on 2/2/2015.
@@ -15,26 +9,16 @@ import java.util.Enumeration;
 public class Encryptor {
     public String encrypt(String plaintext) throws Exception
     {
-        int maxKeyLen = Cipher.getMaxAllowedKeyLength("AES");
-        InputStream inputStream = this.getClass().getClassLoader().getResourceAsStream("aes-keystore.jck");
-            KeyStore keystore = KeyStore.getInstance("JCEKS");
-        keystore.load(inputStream, "mystorepass".toCharArray());
-        Enumeration<String> en =  keystore.aliases();
-
-        if (!keystore.containsAlias("jceksaes")) {
-            throw new RuntimeException("Alias for key not found");
-        }
-        Key key = keystore.getKey("jceksaes", "mykeypass".toCharArray());
-        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
-        cipher.init(Cipher.ENCRYPT_MODE, key);
+        Cipher cipher = Ciphers.get();
+        cipher.init(Cipher.ENCRYPT_MODE, KeyMaterial.getKey());
         byte[] iv = cipher.getIV();
         byte[] plaintextBytes = plaintext.getBytes();
-        byte[] cipherTextBytes = cipher.doFinal(plaintextBytes);
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream( );
-        outputStream.write(iv);
-        outputStream.write(cipherTextBytes);
-        BASE64Encoder encoder = new BASE64Encoder();
+        // With padding the output size of a whole-message encryption is exact
+        byte[] cipherTextBytes = new byte[iv.length + cipher.getOutputSize(plaintextBytes.length)];
+
+        System.arraycopy(iv, 0, cipherTextBytes, 0, iv.length);
+        cipher.doFinal(plaintextBytes, 0, plaintextBytes.length, cipherTextBytes, iv.length);
 
-        return encoder.encode(outputStream.toByteArray());
+        return DatatypeConverter.printBase64Binary(cipherTextBytes);
     }
 }
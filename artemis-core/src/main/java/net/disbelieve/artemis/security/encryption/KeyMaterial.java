@@ -0,0 +1,70 @@
+package net.disbelieve.artemis.security.encryption;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyStore;
+
+/**
+ * Holds the AES key used by Encryptor and Decryptor.
+ * <p>
+ * The keystore is read from the classpath the first time the key is needed and kept until reload is called.
+ */
+public class KeyMaterial {
+    private static final String KEYSTORE = "aes-keystore.jck";
+    private static final String KEYSTORE_TYPE = "JCEKS";
+    private static final String ALIAS = "jceksaes";
+    private static final char[] STORE_PASSWORD = "mystorepass".toCharArray();
+    private static final char[] KEY_PASSWORD = "mykeypass".toCharArray();
+    private static volatile Key key;
+
+    /**
+     * Gets the key, loading it if this is the first call.
+     *
+     * @return the key
+     */
+    public static Key getKey() throws GeneralSecurityException, IOException {
+        Key current = key;
+
+        if (current == null) {
+            synchronized (KeyMaterial.class) {
+                if ((current = key) == null) {
+                    current = key = load();
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Reads the keystore again and replaces the key. Operations already in progress finish with the old key.
+     */
+    public static void reload() throws GeneralSecurityException, IOException {
+        Key loaded = load();
+
+        synchronized (KeyMaterial.class) {
+            key = loaded;
+        }
+    }
+
+    private static Key load() throws GeneralSecurityException, IOException {
+        InputStream inputStream = KeyMaterial.class.getClassLoader().getResourceAsStream(KEYSTORE);
+        KeyStore keystore = KeyStore.getInstance(KEYSTORE_TYPE);
+
+        if (inputStream == null) {
+            throw new IOException(KEYSTORE + " not found on the classpath");
+        }
+        try {
+            keystore.load(inputStream, STORE_PASSWORD);
+        } finally {
+            inputStream.close();
+        }
+        if (!keystore.containsAlias(ALIAS)) {
+            throw new RuntimeException("Alias for key not found");
+        }
+
+        return keystore.getKey(ALIAS, KEY_PASSWORD);
+    }
+}
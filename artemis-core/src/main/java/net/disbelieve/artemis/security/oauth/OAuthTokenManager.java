@@ -13,6 +13,8 @@ import java.util.Date;
  */
 public class OAuthTokenManager {
     private ObjectMapper om = new ObjectMapper();
+    private Encryptor encryptor = new Encryptor();
+    private Decryptor decryptor = new Decryptor();
 
     public static void main (String[] args) {
         ObjectMapper om = new ObjectMapper();
@@ -34,7 +36,6 @@ public class OAuthTokenManager {
 
     public OAuthResponse parse(String token) {
         OAuthResponse response = null;
-        Decryptor decryptor = new Decryptor();
         Reader reader = null;
 
         try {
@@ -50,7 +51,6 @@ public class OAuthTokenManager {
     public String build(OAuthResponse response) {
         Writer writer = new StringWriter();
         String token = null;
-        Encryptor encryptor = new Encryptor();
 
         try {
             om.writeValue(writer, response);
@@ -25,6 +25,24 @@ public class CassandraConnectUtils {
     private Integer maxConnectionsPerHost;
     private Integer maxRequestsPerConnection;
     private Integer poolTimeout;
+    private Integer usedHostsPerRemoteDc;
+    private Boolean allowRemoteDCsForLocalConsistencyLevel;
+    private Boolean tokenAware;
+    private Boolean latencyAware;
+    private Double latencyAwareExclusionThreshold;
+    private Long latencyAwareScale;
+    private Long latencyAwareRetryPeriod;
+    private Long latencyAwareUpdateRate;
+    private Integer latencyAwareMinimumMeasurements;
+    private String speculativeExecution;
+    private Long speculativeExecutionDelay;
+    private Double speculativeExecutionPercentile;
+    private Integer speculativeExecutionMaxExecutions;
+    private Long speculativeExecutionHighestTrackableLatency;
+    private Long slowQueryThreshold;
+    private Double slowQuerySampleRate;
+    private Integer slowQueryMaxPerSecond;
+    private Boolean slowQueryLogValues;
 
     private CassandraConnectUtils() {}
 
@@ -58,6 +76,59 @@ public class CassandraConnectUtils {
             if((prop = properties.getProperty(CassandraConnect.PROPERTIES.POOL_TIMEOUT.toString())) != null) {
                 poolTimeout = Integer.parseInt(prop);
             }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.USED_HOSTS_PER_REMOTE_DC.toString())) != null) {
+                usedHostsPerRemoteDc = Integer.parseInt(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.ALLOW_REMOTE_DCS_FOR_LOCAL_CONSISTENCY_LEVEL.toString())) != null) {
+                allowRemoteDCsForLocalConsistencyLevel = Boolean.parseBoolean(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.TOKEN_AWARE.toString())) != null) {
+                tokenAware = Boolean.parseBoolean(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.LATENCY_AWARE.toString())) != null) {
+                latencyAware = Boolean.parseBoolean(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.LATENCY_AWARE_EXCLUSION_THRESHOLD.toString())) != null) {
+                latencyAwareExclusionThreshold = Double.parseDouble(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.LATENCY_AWARE_SCALE.toString())) != null) {
+                latencyAwareScale = Long.parseLong(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.LATENCY_AWARE_RETRY_PERIOD.toString())) != null) {
+                latencyAwareRetryPeriod = Long.parseLong(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.LATENCY_AWARE_UPDATE_RATE.toString())) != null) {
+                latencyAwareUpdateRate = Long.parseLong(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.LATENCY_AWARE_MINIMUM_MEASUREMENTS.toString())) != null) {
+                latencyAwareMinimumMeasurements = Integer.parseInt(prop);
+            }
+            speculativeExecution = properties.getProperty(CassandraConnect.PROPERTIES.SPECULATIVE_EXECUTION.toString());
+
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SPECULATIVE_EXECUTION_DELAY.toString())) != null) {
+                speculativeExecutionDelay = Long.parseLong(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SPECULATIVE_EXECUTION_PERCENTILE.toString())) != null) {
+                speculativeExecutionPercentile = Double.parseDouble(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SPECULATIVE_EXECUTION_MAX_EXECUTIONS.toString())) != null) {
+                speculativeExecutionMaxExecutions = Integer.parseInt(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SPECULATIVE_EXECUTION_HIGHEST_TRACKABLE_LATENCY.toString())) != null) {
+                speculativeExecutionHighestTrackableLatency = Long.parseLong(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SLOW_QUERY_THRESHOLD.toString())) != null) {
+                slowQueryThreshold = Long.parseLong(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SLOW_QUERY_SAMPLE_RATE.toString())) != null) {
+                slowQuerySampleRate = Double.parseDouble(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SLOW_QUERY_MAX_PER_SECOND.toString())) != null) {
+                slowQueryMaxPerSecond = Integer.parseInt(prop);
+            }
+            if((prop = properties.getProperty(CassandraConnect.PROPERTIES.SLOW_QUERY_LOG_VALUES.toString())) != null) {
+                slowQueryLogValues = Boolean.parseBoolean(prop);
+            }
         } catch (Exception e) {
             LOG.warn("Must at least provide one seed for startup ...", e);
         }
@@ -97,5 +168,59 @@ public class CassandraConnectUtils {
         if (poolTimeout != null) {
             builder.poolTimeoutMillis(poolTimeout);
         }
+        if (usedHostsPerRemoteDc != null) {
+            builder.usedHostsPerRemoteDc(usedHostsPerRemoteDc);
+        }
+        if (allowRemoteDCsForLocalConsistencyLevel != null) {
+            builder.allowRemoteDCsForLocalConsistencyLevel(allowRemoteDCsForLocalConsistencyLevel);
+        }
+        if (tokenAware != null) {
+            builder.tokenAware(tokenAware);
+        }
+        if (latencyAware != null) {
+            builder.latencyAware(latencyAware);
+        }
+        if (latencyAwareExclusionThreshold != null) {
+            builder.latencyAwareExclusionThreshold(latencyAwareExclusionThreshold);
+        }
+        if (latencyAwareScale != null) {
+            builder.latencyAwareScaleMillis(latencyAwareScale);
+        }
+        if (latencyAwareRetryPeriod != null) {
+            builder.latencyAwareRetryPeriodSeconds(latencyAwareRetryPeriod);
+        }
+        if (latencyAwareUpdateRate != null) {
+            builder.latencyAwareUpdateRateMillis(latencyAwareUpdateRate);
+        }
+        if (latencyAwareMinimumMeasurements != null) {
+            builder.latencyAwareMinimumMeasurements(latencyAwareMinimumMeasurements);
+        }
+        if (speculativeExecution != null) {
+            builder.speculativeExecution(speculativeExecution);
+        }
+        if (speculativeExecutionDelay != null) {
+            builder.speculativeExecutionDelayMillis(speculativeExecutionDelay);
+        }
+        if (speculativeExecutionPercentile != null) {
+            builder.speculativeExecutionPercentile(speculativeExecutionPercentile);
+        }
+        if (speculativeExecutionMaxExecutions != null) {
+            builder.speculativeExecutionMaxExecutions(speculativeExecutionMaxExecutions);
+        }
+        if (speculativeExecutionHighestTrackableLatency != null) {
+            builder.speculativeExecutionHighestTrackableLatencyMillis(speculativeExecutionHighestTrackableLatency);
+        }
+        if (slowQueryThreshold != null) {
+            builder.slowQueryThresholdMillis(slowQueryThreshold);
+        }
+        if (slowQuerySampleRate != null) {
+            builder.slowQuerySampleRate(slowQuerySampleRate);
+        }
+        if (slowQueryMaxPerSecond != null) {
+            builder.slowQueryMaxPerSecond(slowQueryMaxPerSecond);
+        }
+        if (slowQueryLogValues != null) {
+            builder.slowQueryLogValues(slowQueryLogValues);
+        }
     }
 }
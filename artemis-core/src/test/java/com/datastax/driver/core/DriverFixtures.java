@@ -0,0 +1,61 @@
+package com.datastax.driver.core;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * Builds the driver objects the tests bind against, which the driver only creates from the messages of a cluster.
+ */
+public class DriverFixtures {
+    public static final ProtocolVersion PROTOCOL_VERSION = ProtocolVersion.V3;
+
+    private DriverFixtures() {}
+
+    /**
+     * Creates a prepared statement as it would be returned by the cluster. Only the methods BoundStatement relies on
+     * are implemented.
+     *
+     * @param query    the query
+     * @param keyspace the keyspace of the bind variables
+     * @param table    the table of the bind variables
+     * @param names    the names of the bind variables, in marker order
+     * @param types    the type of each bind variable
+     * @return the prepared statement
+     */
+    public static PreparedStatement prepared(final String query, String keyspace, String table, List<String> names,
+                                             List<DataType> types) {
+        ColumnDefinitions.Definition[] definitions = new ColumnDefinitions.Definition[names.size()];
+        final PreparedId preparedId;
+
+        for (int i = 0; i < definitions.length; i++) {
+            definitions[i] = new ColumnDefinitions.Definition(keyspace, table, names.get(i), types.get(i));
+        }
+        preparedId = new PreparedId(MD5Digest.wrap(new byte[16]), new ColumnDefinitions(definitions),
+                ColumnDefinitions.EMPTY, null, PROTOCOL_VERSION);
+
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class[]{PreparedStatement.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        String name = method.getName();
+
+                        if (name.equals("bind")) {
+                            return args == null ? new BoundStatement((PreparedStatement) proxy) :
+                                    new BoundStatement((PreparedStatement) proxy).bind((Object[]) args[0]);
+                        } else if (name.equals("getVariables")) {
+                            return preparedId.metadata;
+                        } else if (name.equals("getPreparedId")) {
+                            return preparedId;
+                        } else if (name.equals("getQueryString")) {
+                            return query;
+                        } else if (name.equals("isTracing")) {
+                            return false;
+                        } else if (name.startsWith("get")) {
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(name);
+                    }
+                });
+    }
+}
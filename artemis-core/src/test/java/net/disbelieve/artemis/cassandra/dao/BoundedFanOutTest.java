@@ -0,0 +1,69 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.ConsistencyLevels;
+import com.comcast.artemis.cassandra.data.Result;
+import com.datastax.driver.core.ConsistencyLevel;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Completes the calls of a fan-out from another thread, as the driver's I/O threads do.
+ */
+public class BoundedFanOutTest {
+
+    @After
+    public void tearDown() {
+        ConsistencyLevels.clearRequestOverrides();
+    }
+
+    @Test
+    public void keepReadConsistencyLevelOfCaller() throws Exception {
+        final List<ConsistencyLevel> levels = new CopyOnWriteArrayList<ConsistencyLevel>();
+        final List<Result<Integer>> started = new CopyOnWriteArrayList<Result<Integer>>();
+        final List<ConsistencyLevel> completingThreadOverride = new ArrayList<ConsistencyLevel>();
+        List<Callable<Result<Integer>>> calls = new ArrayList<Callable<Result<Integer>>>();
+        List<Result<Integer>> results;
+        Thread completing;
+
+        for (int i = 0; i < 3; i++) {
+            calls.add(new Callable<Result<Integer>>() {
+                public Result<Integer> call() {
+                    Result<Integer> result = new Result<Integer>();
+
+                    levels.add(ConsistencyLevels.getRead());
+                    started.add(result);
+
+                    return result;
+                }
+            });
+        }
+        ConsistencyLevels.setRequestOverrides(ConsistencyLevel.LOCAL_QUORUM, null);
+        results = BoundedFanOut.execute(calls, 1);
+        ConsistencyLevels.clearRequestOverrides();
+
+        completing = new Thread(new Runnable() {
+            public void run() {
+                for (int i = 0; i < 3; i++) {
+                    started.get(i).setUnmappedResultSet(null);
+                    started.get(i).setMappedResult(i);
+                }
+                completingThreadOverride.add(ConsistencyLevels.getRequestReadOverride());
+            }
+        });
+        completing.start();
+        completing.join();
+
+        assertEquals(Collections.nCopies(3, ConsistencyLevel.LOCAL_QUORUM), levels);
+        assertEquals(Integer.valueOf(2), results.get(2).getMappedResult());
+        assertNull(completingThreadOverride.get(0));
+    }
+}
@@ -0,0 +1,68 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.test.data.TestLongCompoundKey;
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.ClauseExtractor;
+import com.datastax.driver.mapping.annotations.PartitionKey;
+import com.datastax.driver.mapping.annotations.Table;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Builds clauses through the getters looked up by reflection, which CassandraDAO only uses for models without a
+ * generated accessor.
+ */
+public class CQLUtilsTest {
+
+    @Test
+    public void buildClauseFromGetters() throws Exception {
+        CQLUtils cqlUtils = new CQLUtils(TestLongCompoundKey.class);
+        TestLongCompoundKey model = new TestLongCompoundKey();
+
+        model.setPartitionKey1(1l);
+        model.setPartitionKey2(2l);
+        model.setClusterKey2(4l);
+        model.setData(5l);
+
+        assertEquals(Arrays.<Object>asList(1l, 2l, 4l),
+                values(cqlUtils.buildClause(cqlUtils.getPrimaryKey(), model)));
+    }
+
+    @Test
+    public void buildClauseOfPackagePrivateModel() throws Exception {
+        CQLUtils cqlUtils = new CQLUtils(PackagePrivateKey.class);
+        PackagePrivateKey model = new PackagePrivateKey();
+
+        model.setId(7l);
+
+        assertEquals(Arrays.<Object>asList(7l), values(cqlUtils.buildClause(cqlUtils.getPrimaryKey(), model)));
+    }
+
+    private List<Object> values(List<Clause> clauses) {
+        List<Object> values = new ArrayList<Object>();
+
+        for (Clause clause : clauses) {
+            values.add(ClauseExtractor.getValues(clause));
+        }
+        return values;
+    }
+
+    @Table(keyspace = "artemisKeySpace", name = "packagePrivateKey")
+    static class PackagePrivateKey {
+        @PartitionKey
+        private Long id;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.test.data.TestLongCompoundKey;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.DriverFixtures;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.Statement;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Reads rows through the cache by statements bound from the clauses of a Long keyed model, as CassandraDAO.get does.
+ */
+public class EntityCacheTest {
+    private static final String SELECT_PREFIX = "SELECT * FROM \"artemisKeySpace\".\"entityCacheTest\" WHERE ";
+    private final AtomicInteger loads = new AtomicInteger();
+    private Session session;
+    private CQLUtils cqlUtils;
+    private EntityCache<TestLongCompoundKey> entityCache;
+
+    @Before
+    public void setUp() {
+        session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class[]{Session.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("prepare") && args[0] instanceof String) {
+                            assertEquals(SELECT_PREFIX + "partitionKey1=? AND partitionKey2=? AND clusterKey1=? AND " +
+                                    "clusterKey2=?", args[0]);
+
+                            return DriverFixtures.prepared((String) args[0], "artemisKeySpace", "entityCacheTest",
+                                    Arrays.asList("partitionkey1", "partitionkey2", "clusterkey1", "clusterkey2"),
+                                    Collections.nCopies(4, DataType.bigint()));
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        cqlUtils = new CQLUtils(TestLongCompoundKey.class);
+        entityCache = new EntityCache<TestLongCompoundKey>(new AsyncFunction<Statement, TestLongCompoundKey>() {
+            public ListenableFuture<TestLongCompoundKey> apply(Statement statement) {
+                loads.incrementAndGet();
+
+                return Futures.immediateFuture(new TestLongCompoundKey());
+            }
+        }, cqlUtils.getPrimaryKey(), 100, 60000, 0);
+    }
+
+    @Test
+    public void getByModelKey() throws Exception {
+        TestLongCompoundKey row = entityCache.get(bind(model(1l))).getMappedResult();
+
+        assertSame(row, entityCache.get(bind(model(1l))).getMappedResult());
+        assertEquals(1, loads.get());
+
+        entityCache.get(bind(model(2l))).getMappedResult();
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidateByModelKey() throws Exception {
+        entityCache.get(bind(model(1l))).getMappedResult();
+        entityCache.invalidateAfter(Futures.immediateFuture(null), bind(model(1l)));
+        entityCache.get(bind(model(1l))).getMappedResult();
+
+        assertEquals(2, loads.get());
+    }
+
+    private Statement bind(TestLongCompoundKey model) throws Exception {
+        return PreparedStatementCache.bind(session, SELECT_PREFIX, cqlUtils.buildClause(cqlUtils.getPrimaryKey(),
+                model), null);
+    }
+
+    private TestLongCompoundKey model(long partitionKey1) {
+        TestLongCompoundKey model = new TestLongCompoundKey();
+
+        model.setPartitionKey1(partitionKey1);
+        model.setPartitionKey2(2l);
+        model.setClusterKey1(3l);
+        model.setClusterKey2(4l);
+
+        return model;
+    }
+}
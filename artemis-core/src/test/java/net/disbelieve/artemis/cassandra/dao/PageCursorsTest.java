@@ -0,0 +1,88 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.PagingState;
+import com.google.common.io.BaseEncoding;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.fail;
+
+public class PageCursorsTest {
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+    private static final byte[] SECRET = "0123456789abcdef0123456789abcdef".getBytes();
+
+    @BeforeClass
+    public static void setSecret() {
+        PageCursors.setSecret(SECRET);
+    }
+
+    @Test
+    public void roundTrip() throws Exception {
+        PagingState pagingState = pagingState();
+
+        assertArrayEquals(pagingState.toBytes(), PageCursors.decode(PageCursors.encode(pagingState)).toBytes());
+    }
+
+    @Test
+    public void flippedByteIsRejected() throws Exception {
+        byte[] cursor = ENCODING.decode(PageCursors.encode(pagingState()));
+
+        // A byte of the paging state, then a byte of its MAC
+        for (int i : new int[]{5, cursor.length - 1}) {
+            byte[] altered = cursor.clone();
+
+            altered[i] ^= 1;
+            assertRejected(ENCODING.encode(altered));
+        }
+    }
+
+    @Test
+    public void truncatedCursorIsRejected() throws Exception {
+        byte[] cursor = ENCODING.decode(PageCursors.encode(pagingState()));
+
+        assertRejected(ENCODING.encode(Arrays.copyOf(cursor, cursor.length - 1)));
+        assertRejected(ENCODING.encode(Arrays.copyOf(cursor, 32)));
+        assertRejected("");
+        assertRejected("not a cursor!");
+    }
+
+    @Test
+    public void otherSecretIsRejected() throws Exception {
+        String cursor = PageCursors.encode(pagingState());
+
+        try {
+            PageCursors.setSecret("fedcba9876543210fedcba9876543210".getBytes());
+            assertRejected(cursor);
+        } finally {
+            PageCursors.setSecret(SECRET);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shortSecretIsRefused() {
+        PageCursors.setSecret(new byte[8]);
+    }
+
+    private PagingState pagingState() {
+        ByteBuffer bytes = ByteBuffer.allocate(26);
+
+        // The paging state of the cluster, the hash of the statement, then the protocol version
+        bytes.putShort((short) 4).putShort((short) 16).put(new byte[]{1, 2, 3, 4}).put(new byte[16]).putShort((short) 3);
+
+        return PagingState.fromBytes(bytes.array());
+    }
+
+    private void assertRejected(String cursor) {
+        try {
+            PageCursors.decode(cursor);
+            fail("The cursor " + cursor + " was accepted");
+        } catch (ResultAccessException e) {
+            // expected
+        }
+    }
+}
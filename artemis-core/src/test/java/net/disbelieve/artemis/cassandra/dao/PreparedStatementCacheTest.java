@@ -0,0 +1,98 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.querybuilder.Clause;
+import com.datastax.driver.core.querybuilder.QueryBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Prepares and binds through a session that records the query strings it prepares and the values they are bound to.
+ */
+public class PreparedStatementCacheTest {
+    private final List<String> prepared = new ArrayList<String>();
+    private final List<List<Object>> bound = new ArrayList<List<Object>>();
+    private Session session;
+
+    @Before
+    public void setUp() {
+        session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class[]{Session.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("prepare") && args[0] instanceof String) {
+                            prepared.add((String) args[0]);
+
+                            return preparedStatement();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    @Test
+    public void bindNumericValues() throws Exception {
+        PreparedStatementCache.bind(session, "SELECT * FROM ks.numeric WHERE ",
+                Arrays.<Clause>asList(QueryBuilder.eq("k", 5L), QueryBuilder.gt("c", 1.5d)), 10);
+
+        assertEquals(Collections.singletonList("SELECT * FROM ks.numeric WHERE k=? AND c>? LIMIT ?"), prepared);
+        assertEquals(Arrays.<Object>asList(5L, 1.5d, 10), bound.get(0));
+    }
+
+    @Test
+    public void bindNumericIn() throws Exception {
+        PreparedStatementCache.bind(session, "SELECT * FROM ks.numericIn WHERE ",
+                Collections.<Clause>singletonList(QueryBuilder.in("k", 1L, 2L, 3L)), null);
+
+        assertEquals(Collections.singletonList("SELECT * FROM ks.numericIn WHERE k IN ?"), prepared);
+        assertEquals(Collections.<Object>singletonList(Arrays.asList(1L, 2L, 3L)), bound.get(0));
+    }
+
+    @Test
+    public void bindTokenBounds() throws Exception {
+        String token = QueryBuilder.token("a", "b");
+
+        PreparedStatementCache.bind(session, "SELECT * FROM ks.token WHERE ",
+                Arrays.<Clause>asList(QueryBuilder.gt(token, -5L), QueryBuilder.lte(token, 7L)), null);
+
+        assertEquals(Collections.singletonList("SELECT * FROM ks.token WHERE token(a,b)>? AND token(a,b)<=?"),
+                prepared);
+        assertEquals(Arrays.<Object>asList(-5L, 7L), bound.get(0));
+    }
+
+    @Test
+    public void prepareOncePerShape() throws Exception {
+        for (long key = 0; key < 5; key++) {
+            PreparedStatementCache.bind(session, "SELECT * FROM ks.shape WHERE ",
+                    Arrays.<Clause>asList(QueryBuilder.eq("k", key), QueryBuilder.in("c", key, key + 1)), null);
+        }
+
+        assertEquals(1, prepared.size());
+        assertEquals(5, bound.size());
+        assertEquals(Arrays.<Object>asList(4L, Arrays.asList(4L, 5L)), bound.get(4));
+    }
+
+    private PreparedStatement preparedStatement() {
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class[]{PreparedStatement.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("bind") && args != null) {
+                            bound.add(Arrays.asList((Object[]) args[0]));
+
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
@@ -0,0 +1,93 @@
+package com.comcast.artemis.cassandra.dao;
+
+import com.comcast.artemis.cassandra.data.Result;
+import com.comcast.artemis.exception.ResultAccessException;
+import com.datastax.driver.core.BoundStatement;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.DataType;
+import com.datastax.driver.core.DriverFixtures;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Statement;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+/**
+ * Flushes buffered writes through a writer that fails the writes of one key.
+ */
+public class WriteBehindBufferTest {
+    private final PreparedStatement insert = DriverFixtures.prepared("INSERT INTO ks.t (k, v) VALUES (?, ?)", "ks",
+            "t", Arrays.asList("k", "v"), Arrays.asList(DataType.bigint(), DataType.bigint()));
+    private final Exception failure = new Exception("Write timed out");
+
+    @Test
+    public void failTheWritesOfTheFailedKey() throws Exception {
+        WriteBehindBuffer buffer = new WriteBehindBuffer(new FailingWriter(2l), Collections.singletonList("k"), 60000,
+                100, 10, 1);
+        Result first = buffer.buffer(insert.bind(1l, 10l));
+        Result failed = buffer.buffer(insert.bind(2l, 20l));
+        Result coalesced = buffer.buffer(insert.bind(1l, 11l));
+
+        buffer.drain(1, TimeUnit.SECONDS);
+
+        first.getMappedResult();
+        coalesced.getMappedResult();
+        assertFailed(failed);
+        assertEquals(1, buffer.getFlushedWrites());
+        assertEquals(1, buffer.getFailedWrites());
+        assertEquals(1, buffer.getCoalescedWrites());
+    }
+
+    private void assertFailed(Result result) {
+        try {
+            result.getMappedResult();
+            fail("The write should have failed");
+        } catch (ResultAccessException e) {
+            assertSame(failure, e.getCause());
+        }
+    }
+
+    /**
+     * Completes a write at once, failing the rows of the statements binding the given key.
+     */
+    private class FailingWriter extends PartitionBatchWriter {
+        private final long failedKey;
+
+        FailingWriter(long failedKey) {
+            this.failedKey = failedKey;
+        }
+
+        @Override
+        ResultSetFuture execute(Statement statement, Operation operation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        <T> Result<Map<T, Throwable>> write(List<T> rows, List<Statement> statements,
+                                            ConsistencyLevel consistencyLevel, int batchSize, int maxInFlight,
+                                            Operation operation) {
+            Result<Map<T, Throwable>> result = new Result<Map<T, Throwable>>();
+            Map<T, Throwable> failures = new IdentityHashMap<T, Throwable>();
+
+            for (int i = 0; i < rows.size(); i++) {
+                if (((BoundStatement) statements.get(i)).getLong("k") == failedKey) {
+                    failures.put(rows.get(i), failure);
+                }
+            }
+            result.setUnmappedResultSet(null);
+            result.setMappedResult(failures);
+
+            return result;
+        }
+    }
+}
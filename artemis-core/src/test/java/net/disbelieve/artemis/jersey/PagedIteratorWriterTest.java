@@ -0,0 +1,100 @@
+package com.comcast.artemis.jersey;
+
+import com.comcast.artemis.cassandra.data.PagedIterator;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Writes rows through an iterator standing in for the driver's pages.
+ */
+public class PagedIteratorWriterTest {
+    private final PagedIteratorWriter writer = new PagedIteratorWriter(new ObjectMappers());
+
+    @Test
+    public void writeJsonArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        write(new RowIterator(Arrays.<Object>asList(Collections.singletonMap("id", 1),
+                Collections.singletonMap("id", 2))), out);
+
+        assertEquals("[{\"id\":1},{\"id\":2}]", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void writeEmptyJsonArray() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        write(new RowIterator(Collections.emptyList()), out);
+
+        assertEquals("[]", out.toString("UTF-8"));
+    }
+
+    @Test
+    public void cancelWhenClientGoesAway() throws Exception {
+        RowIterator iterator = new RowIterator(Arrays.<Object>asList(1, 2, 3));
+
+        try {
+            write(iterator, new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Broken pipe");
+                }
+            });
+            fail("The IOException should have been rethrown");
+        } catch (IOException e) {
+            assertEquals("Broken pipe", e.getMessage());
+        }
+        assertTrue(iterator.cancelled);
+    }
+
+    private void write(PagedIterator<?> iterator, OutputStream out) throws IOException {
+        writer.writeTo(iterator, iterator.getClass(), iterator.getClass(), new Annotation[0],
+                MediaType.APPLICATION_JSON_TYPE, null, out);
+    }
+
+    /**
+     * Every row is the last of its page, so the output is flushed after each one.
+     */
+    private static class RowIterator extends PagedIterator<Object> {
+        private final Iterator<Object> rows;
+        private boolean cancelled;
+
+        RowIterator(List<Object> rows) {
+            super(null, null, 1);
+            this.rows = rows.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cancelled && rows.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            return rows.next();
+        }
+
+        @Override
+        public int getAvailableWithoutFetching() {
+            return 0;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -1,10 +1,18 @@
 package com.comcast.artemis.test;
 
 import com.comcast.artemis.cassandra.CassandraConnect;
+import com.comcast.artemis.cassandra.data.DataVersion;
+import com.comcast.artemis.cassandra.data.Page;
+import com.comcast.artemis.cassandra.data.PagedIterator;
 import com.comcast.artemis.cassandra.data.Result;
+import com.comcast.artemis.cassandra.dao.DecryptionMode;
+import com.comcast.artemis.cassandra.dao.RowCallback;
+import com.comcast.artemis.exception.ResultAccessException;
 import com.comcast.artemis.jersey.ArtemisApplication;
+import com.comcast.artemis.test.dao.TestEnumDAO;
 import com.comcast.artemis.test.dao.TestLongCompoundDAO;
 import com.comcast.artemis.test.dao.TestStringSimpleDAO;
+import com.comcast.artemis.test.data.ReflectedModels;
 import com.comcast.artemis.test.data.TestLongCompoundKey;
 import com.comcast.artemis.test.data.TestStringSimpleKey;
 import com.datastax.driver.core.DataType;
@@ -13,21 +21,39 @@ import com.datastax.driver.core.querybuilder.Clause;
 import com.datastax.driver.core.querybuilder.QueryBuilder;
 import com.datastax.driver.core.schemabuilder.Create;
 import com.datastax.driver.core.schemabuilder.SchemaBuilder;
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.cassandraunit.utils.EmbeddedCassandraServerHelper;
 import org.junit.BeforeClass;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
 import org.junit.runners.MethodSorters;
 
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
 public class CassandraDAOTest {
     private static TestStringSimpleDAO testStringSimpleDAO;
     private static TestLongCompoundDAO testLongCompoundDAO;
+    private static TestEnumDAO testEnumDAO;
     private static ArtemisApplication artemisApplication;
     private static TestStringSimpleKey tsskOne;
     private static TestStringSimpleKey tsskTwo;
@@ -53,8 +79,17 @@ public class CassandraDAOTest {
         createLongCompoundTable.addColumn("data", DataType.bigint());
         CassandraConnect.getSession().execute(createLongCompoundTable);
 
+        Create createEnumTable = SchemaBuilder.createTable("\"artemisKeySpace\"", "\"testEnumColumnFamily\"");
+        createEnumTable.addPartitionKey("partitionKey", DataType.ascii());
+        createEnumTable.addClusteringColumn("clusterKey", DataType.cint());
+        createEnumTable.addColumn("status", DataType.text());
+        createEnumTable.addColumn("ordinalStatus", DataType.cint());
+        createEnumTable.addColumn("data", DataType.bigint());
+        CassandraConnect.getSession().execute(createEnumTable);
+
         testStringSimpleDAO = (TestStringSimpleDAO) ArtemisApplication.getDAO(TestStringSimpleDAO.class);
         testLongCompoundDAO = (TestLongCompoundDAO) ArtemisApplication.getDAO(TestLongCompoundDAO.class);
+        testEnumDAO = (TestEnumDAO) ArtemisApplication.getDAO(TestEnumDAO.class);
 
         tsskOne = new TestStringSimpleKey();
         tsskOne.setPartitionKey("p key1");
@@ -89,6 +124,19 @@ public class CassandraDAOTest {
         assertEquals(tsskOne.getPartitionKey(), testStringSimpleKey.getPartitionKey());
     }
 
+    @Test
+    public void _01_getOneFuture() throws Exception {
+        Result<TestStringSimpleKey> result = testStringSimpleDAO.getOne(tsskOne.getPartitionKey(), tsskOne.getClusterKey());
+        ListenableFuture<String> data = Futures.transform(result.getMappedFuture(), new Function<TestStringSimpleKey, String>() {
+            public String apply(TestStringSimpleKey testStringSimpleKey) {
+                return testStringSimpleKey.getData();
+            }
+        });
+
+        assertEquals(tsskOne.getData(), data.get());
+        assertEquals(tsskOne.getData(), result.getMappedFuture().get().getData());
+    }
+
     @Test
     public void _02_deleteOne() throws Exception {
         Result<TestStringSimpleKey> result = testStringSimpleDAO.deleteOne(tsskOne.getPartitionKey(), tsskOne.getClusterKey());
@@ -141,6 +189,32 @@ public class CassandraDAOTest {
         assertEquals(1, testDatum.size());
     }
 
+    @Test
+    public void _06_getRowIterator() throws Exception {
+        Result<PagedIterator<TestStringSimpleKey>> result = testStringSimpleDAO.getRowIterator(1, tsskOne.getPartitionKey());
+        PagedIterator<TestStringSimpleKey> testDatum = result.getMappedResult();
+        int count = 0;
+
+        while (testDatum.hasNext()) {
+            assertEquals(tsskOne.getPartitionKey(), testDatum.next().getPartitionKey());
+            count++;
+        }
+        assertEquals(1, count);
+    }
+
+    @Test
+    public void _06_scanTable() throws Exception {
+        final AtomicInteger count = new AtomicInteger();
+        Result<Long> result = testStringSimpleDAO.scanTable(4, 10, null, new RowCallback<TestStringSimpleKey>() {
+            public void onRow(TestStringSimpleKey row) {
+                count.incrementAndGet();
+            }
+        });
+
+        assertEquals(1l, result.getMappedResult().longValue());
+        assertEquals(1, count.get());
+    }
+
     @Test
     public void _07_getWhereIn() throws Exception {
         List<Clause> whereConditions = new ArrayList<>();
@@ -169,6 +243,17 @@ public class CassandraDAOTest {
         assertEquals(1, testDatum.size());
     }
 
+    @Test
+    public void _08_getWhereSameColumnsOtherOperator() throws Exception {
+        List<Clause> whereConditions = new ArrayList<>();
+        whereConditions.add(QueryBuilder.eq("partitionKey1", 1l));
+        whereConditions.add(QueryBuilder.eq("partitionKey2", 0l));
+        whereConditions.add(QueryBuilder.lt("clusterKey1", 4l));
+        Result<List<TestLongCompoundKey>> result = testLongCompoundDAO.getWhere(whereConditions);
+
+        assertEquals(null, result.getMappedResult());
+    }
+
     @Test
     public void _09_get() throws Exception {
         Result<List<TestStringSimpleKey>> result = testStringSimpleDAO.get(tsskTwo);
@@ -187,4 +272,359 @@ public class CassandraDAOTest {
 
         assertEquals(null, testDatum);
     }
+
+    @Test
+    public void _11_putMany() throws Exception {
+        List<TestLongCompoundKey> rows = new ArrayList<>();
+
+        for (long i = 0; i < 4; i++) {
+            TestLongCompoundKey row = new TestLongCompoundKey();
+            row.setPartitionKey1(i < 3 ? 2l : 3l);
+            row.setPartitionKey2(0l);
+            row.setClusterKey1(i);
+            row.setClusterKey2(i);
+            row.setData(i);
+            rows.add(row);
+        }
+        Result<Map<TestLongCompoundKey, Throwable>> result = testLongCompoundDAO.putMany(rows);
+
+        assertEquals(0, result.getMappedResult().size());
+        assertEquals(3, testLongCompoundDAO.getRow(2l, 0l).getMappedResult().size());
+        assertEquals(1, testLongCompoundDAO.getRow(3l, 0l).getMappedResult().size());
+    }
+
+    @Test
+    public void _12_writeBehind() throws Exception {
+        TestLongCompoundKey first = new TestLongCompoundKey();
+        TestLongCompoundKey second = new TestLongCompoundKey();
+
+        first.setPartitionKey1(4l);
+        first.setPartitionKey2(0l);
+        first.setClusterKey1(0l);
+        first.setClusterKey2(0l);
+        first.setData(1l);
+        second.setPartitionKey1(4l);
+        second.setPartitionKey2(0l);
+        second.setClusterKey1(0l);
+        second.setClusterKey2(0l);
+        second.setData(2l);
+
+        testLongCompoundDAO.enableWriteBehind(60000, 1000);
+        Result firstResult = testLongCompoundDAO.putOne(first);
+        Result secondResult = testLongCompoundDAO.putOne(second);
+
+        assertEquals(1, testLongCompoundDAO.getWriteBehindQueueDepth());
+        testLongCompoundDAO.drainWriteBehind(10, TimeUnit.SECONDS);
+        firstResult.getMappedResult();
+        secondResult.getMappedResult();
+
+        List<TestLongCompoundKey> rows = testLongCompoundDAO.getRow(4l, 0l).getMappedResult();
+        assertEquals(1, rows.size());
+        assertEquals(Long.valueOf(2l), rows.get(0).getData());
+
+        // Enabling write-behind again flushes the writes of the buffer it replaces
+        testLongCompoundDAO.enableWriteBehind(60000, 1000);
+        firstResult = testLongCompoundDAO.putOne(first);
+        testLongCompoundDAO.enableWriteBehind(60000, 1000);
+        firstResult.getMappedResult();
+        testLongCompoundDAO.drainWriteBehind(10, TimeUnit.SECONDS);
+        assertEquals(Long.valueOf(1l), testLongCompoundDAO.getRow(4l, 0l).getMappedResult().get(0).getData());
+    }
+
+    @Test
+    public void _13_entityCache() throws Exception {
+        TestLongCompoundKey row = new TestLongCompoundKey();
+
+        row.setPartitionKey1(5l);
+        row.setPartitionKey2(0l);
+        row.setClusterKey1(0l);
+        row.setClusterKey2(0l);
+        row.setData(1l);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+        testLongCompoundDAO.enableCache(100, 60000, 0);
+
+        TestLongCompoundKey cached = testLongCompoundDAO.getOne(5l, 0l, 0l, 0l).getMappedResult();
+        assertSame(cached, testLongCompoundDAO.getOne(5l, 0l, 0l, 0l).getMappedResult());
+
+        row.setData(2l);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+        assertEquals(Long.valueOf(2l), testLongCompoundDAO.getOne(5l, 0l, 0l, 0l).getMappedResult().getData());
+
+        testLongCompoundDAO.deleteOne(5l, 0l, 0l, 0l).getMappedResult();
+        assertNull(testLongCompoundDAO.getOne(5l, 0l, 0l, 0l).getMappedResult());
+    }
+
+    @Test
+    public void _14_keyFilter() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName keyFilter = new ObjectName("com.comcast.artemis.jmx:name=KeyFilter,keyspace=" +
+                ObjectName.quote("\"artemisKeySpace\"") + ",table=" + ObjectName.quote("\"testLongCompoundColumnFamily\""));
+        TestLongCompoundKey row = new TestLongCompoundKey();
+
+        testLongCompoundDAO.enableKeyFilter(1000, 0.001, 0);
+        while (!(Boolean) mbs.getAttribute(keyFilter, "Built")) {
+            Thread.sleep(10);
+        }
+        assertNull(testLongCompoundDAO.getOne(6l, 0l, 0l, 0l).getMappedResult());
+        assertEquals(1l, mbs.getAttribute(keyFilter, "AvoidedReads"));
+
+        row.setPartitionKey1(6l);
+        row.setPartitionKey2(0l);
+        row.setClusterKey1(0l);
+        row.setClusterKey2(0l);
+        row.setData(1l);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+        assertEquals(Long.valueOf(1l), testLongCompoundDAO.getOne(6l, 0l, 0l, 0l).getMappedResult().getData());
+        assertEquals(Long.valueOf(5l), testLongCompoundDAO.getOne(1l, 0l, 8l, 9l).getMappedResult().getData());
+    }
+
+    @Test
+    public void _15_getMany() throws Exception {
+        List<Object[]> primaryKeys = new ArrayList<>();
+
+        primaryKeys.add(new Object[]{1l, 0l, 8l, 9l});
+        primaryKeys.add(new Object[]{7l, 0l, 0l, 0l});
+        primaryKeys.add(new Object[]{1l, 0l});
+        List<Result<TestLongCompoundKey>> results = testLongCompoundDAO.getMany(primaryKeys);
+
+        assertEquals(3, results.size());
+        assertEquals(Long.valueOf(5l), results.get(0).getMappedResult().getData());
+        assertNull(results.get(1).getMappedResult());
+        try {
+            results.get(2).getMappedResult();
+            fail("Wrong key count should fail");
+        } catch (ResultAccessException e) {
+        }
+    }
+
+    @Test
+    public void _16_getAndDeleteByModel() throws Exception {
+        TestLongCompoundKey row = new TestLongCompoundKey();
+
+        row.setPartitionKey1(8l);
+        row.setPartitionKey2(0l);
+        row.setClusterKey1(1l);
+        row.setClusterKey2(2l);
+        row.setData(3l);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+
+        TestLongCompoundKey partition = new TestLongCompoundKey();
+
+        partition.setPartitionKey1(8l);
+        partition.setPartitionKey2(0l);
+        List<TestLongCompoundKey> rows = testLongCompoundDAO.get(partition).getMappedResult();
+
+        assertEquals(1, rows.size());
+        assertEquals(Long.valueOf(3l), rows.get(0).getData());
+
+        testLongCompoundDAO.delete(row).getMappedResult();
+        assertTrue(testLongCompoundDAO.get(partition).getMappedResult().isEmpty());
+    }
+
+    @Test
+    public void _17_lazyDecryption() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName decryption = new ObjectName("com.comcast.artemis.jmx:name=Decryption,keyspace=" +
+                ObjectName.quote("\"artemisKeySpace\"") + ",table=" + ObjectName.quote("\"testLongCompoundColumnFamily\""));
+
+        testLongCompoundDAO.setDecryptionMode(DecryptionMode.LAZY);
+        try {
+            long decrypted = (Long) mbs.getAttribute(decryption, "DecryptedRows");
+            long deferred = (Long) mbs.getAttribute(decryption, "DeferredRows");
+            List<TestLongCompoundKey> rows = testLongCompoundDAO.getRow(4l, 0l).getMappedResult();
+
+            assertEquals(Long.valueOf(deferred + rows.size()), mbs.getAttribute(decryption, "DeferredRows"));
+            assertEquals(Long.valueOf(decrypted), mbs.getAttribute(decryption, "DecryptedRows"));
+            rows.get(0);
+            assertEquals(Long.valueOf(decrypted + 1), mbs.getAttribute(decryption, "DecryptedRows"));
+        } finally {
+            testLongCompoundDAO.setDecryptionMode(DecryptionMode.EAGER);
+        }
+    }
+
+    @Test
+    public void _18_projection() throws Exception {
+        List<String> keyColumns = Arrays.asList("partitionKey1", "partitionKey2", "clusterKey1", "clusterKey2");
+        List<TestLongCompoundKey> rows = testLongCompoundDAO.getRow(keyColumns, 1l, 0l).getMappedResult();
+
+        assertFalse(rows.isEmpty());
+        for (TestLongCompoundKey row : rows) {
+            assertEquals(Long.valueOf(1l), row.getPartitionKey1());
+            assertNull(row.getData());
+        }
+
+        TestLongCompoundKey row = testLongCompoundDAO.getOne(Arrays.asList("data"), 1l, 0l, 8l, 9l).getMappedResult();
+
+        assertEquals(Long.valueOf(5l), row.getData());
+        assertNull(row.getPartitionKey1());
+    }
+
+    @Test
+    public void _18_projectionByReflection() throws Exception {
+        ReflectedModels.TestEnumKey row = new ReflectedModels.TestEnumKey();
+
+        row.setPartitionKey("p key1");
+        row.setClusterKey(1);
+        row.setStatus(ReflectedModels.Status.SUSPENDED);
+        row.setOrdinalStatus(ReflectedModels.Status.SUSPENDED);
+        row.setData(2l);
+        testEnumDAO.putOne(row).getMappedResult();
+
+        // The model has no generated accessor, so the projection is mapped by the ProjectionMapper
+        ReflectedModels.TestEnumKey projected = testEnumDAO.getOne(
+                Arrays.asList("ordinalStatus", "STATUS", "clusterKey"), "p key1", 1).getMappedResult();
+
+        assertEquals(1, projected.getClusterKey());
+        assertEquals(ReflectedModels.Status.SUSPENDED, projected.getStatus());
+        assertEquals(ReflectedModels.Status.SUSPENDED, projected.getOrdinalStatus());
+        assertNull(projected.getPartitionKey());
+        assertNull(projected.getData());
+
+        assertEquals(Long.valueOf(2l), testEnumDAO.getOne("p key1", 1).getMappedResult().getData());
+
+        try {
+            testEnumDAO.getOne(Arrays.asList("data FROM \"artemisKeySpace\".\"testEnumColumnFamily\" --"),
+                    "p key1", 1).getMappedResult();
+            fail("An unknown column was selected");
+        } catch (ResultAccessException e) {
+            assertTrue(e.getMessage().contains("Unknown column"));
+        }
+    }
+
+    @Test
+    public void _19_version() throws Exception {
+        DataVersion before = testLongCompoundDAO.getRowVersion(1l, 0l).getMappedResult();
+        int rowCount = before.getRowCount();
+        TestLongCompoundKey row = new TestLongCompoundKey();
+
+        row.setPartitionKey1(1l);
+        row.setPartitionKey2(0l);
+        row.setClusterKey1(20l);
+        row.setClusterKey2(21l);
+        row.setData(22l);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+
+        DataVersion after = testLongCompoundDAO.getRowVersion(1l, 0l).getMappedResult();
+
+        assertEquals(before.getRowCount() + 1, after.getRowCount());
+        assertTrue(after.getLastWriteTime() > before.getLastWriteTime());
+        assertFalse(before.getTag().equals(after.getTag()));
+
+        // Nulling a column leaves the latest write time and the count as they were
+        row.setClusterKey2(23l);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+        before = testLongCompoundDAO.getRowVersion(1l, 0l).getMappedResult();
+        row.setClusterKey2(21l);
+        row.setData(null);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+        after = testLongCompoundDAO.getRowVersion(1l, 0l).getMappedResult();
+
+        assertEquals(before.getRowCount(), after.getRowCount());
+        assertEquals(before.getLastWriteTime(), after.getLastWriteTime());
+        assertFalse(before.getTag().equals(after.getTag()));
+
+        testLongCompoundDAO.deleteOne(1l, 0l, 20l, 23l).getMappedResult();
+        testLongCompoundDAO.deleteOne(1l, 0l, 20l, 21l).getMappedResult();
+        assertEquals(rowCount, testLongCompoundDAO.getRowVersion(1l, 0l).getMappedResult().getRowCount());
+    }
+
+    @Test
+    public void _20_latency() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName latency = new ObjectName("com.comcast.artemis.jmx:name=Latency,keyspace=" +
+                ObjectName.quote("\"artemisKeySpace\"") + ",table=" + ObjectName.quote("\"testLongCompoundColumnFamily\""));
+        CompositeData getOne = null;
+
+        // The row is cached since _14_keyFilter
+        testLongCompoundDAO.invalidateCache();
+        mbs.invoke(latency, "resetInterval", null, null);
+        testLongCompoundDAO.getOne(1l, 0l, 8l, 9l).getMappedResult();
+
+        for (CompositeData operation : (CompositeData[]) mbs.getAttribute(latency, "Operations")) {
+            if (operation.get("operation").equals("getOne")) {
+                getOne = operation;
+            }
+        }
+        assertEquals(Long.valueOf(1l), getOne.get("count"));
+        assertEquals(Long.valueOf(1l), getOne.get("firstPageRows"));
+        assertTrue((Long) getOne.get("maxMicros") > 0);
+    }
+
+    @Test
+    public void _21_slowQueryLog() throws Exception {
+        MBeanServer mbs = ManagementFactory.getPlatformMBeanServer();
+        ObjectName slowQueryLog = new ObjectName("com.comcast.artemis.jmx:name=SlowQueryLogMXBeanImpl");
+        long slowQueries = (Long) mbs.getAttribute(slowQueryLog, "SlowQueries");
+
+        testLongCompoundDAO.invalidateCache();
+        mbs.setAttribute(slowQueryLog, new Attribute("ThresholdMillis", 0l));
+        mbs.setAttribute(slowQueryLog, new Attribute("LogValues", true));
+        try {
+            testLongCompoundDAO.getOne(1l, 0l, 8l, 9l).getMappedResult();
+        } finally {
+            mbs.setAttribute(slowQueryLog, new Attribute("ThresholdMillis", -1l));
+            mbs.setAttribute(slowQueryLog, new Attribute("LogValues", false));
+        }
+        assertEquals(Long.valueOf(slowQueries + 1), mbs.getAttribute(slowQueryLog, "SlowQueries"));
+
+        testLongCompoundDAO.invalidateCache();
+        testLongCompoundDAO.getOne(1l, 0l, 8l, 9l).getMappedResult();
+        assertEquals(Long.valueOf(slowQueries + 1), mbs.getAttribute(slowQueryLog, "SlowQueries"));
+    }
+
+    @Test
+    public void _22_getByModelThroughCache() throws Exception {
+        TestLongCompoundKey row = new TestLongCompoundKey();
+
+        // The entity cache is on since _13_entityCache, so a model setting the whole PRIMARY KEY reads through it
+        row.setPartitionKey1(9l);
+        row.setPartitionKey2(0l);
+        row.setClusterKey1(1l);
+        row.setClusterKey2(2l);
+        row.setData(3l);
+        testLongCompoundDAO.putOne(row).getMappedResult();
+
+        List<TestLongCompoundKey> rows = testLongCompoundDAO.get(row).getMappedResult();
+
+        assertEquals(1, rows.size());
+        assertEquals(Long.valueOf(3l), rows.get(0).getData());
+        assertSame(rows.get(0), testLongCompoundDAO.get(row).getMappedResult().get(0));
+
+        testLongCompoundDAO.delete(row).getMappedResult();
+        assertTrue(testLongCompoundDAO.get(row).getMappedResult().isEmpty());
+    }
+
+    @Test
+    public void _23_paging() throws Exception {
+        TestLongCompoundKey row = new TestLongCompoundKey();
+        Page<TestLongCompoundKey> page;
+        String cursor = null;
+        int rows = 0;
+        int pages = 0;
+
+        for (long i = 0; i < 5; i++) {
+            row.setPartitionKey1(11l);
+            row.setPartitionKey2(0l);
+            row.setClusterKey1(i);
+            row.setClusterKey2(0l);
+            row.setData(i);
+            testLongCompoundDAO.putOne(row).getMappedResult();
+        }
+        do {
+            page = testLongCompoundDAO.getRowPage(2, cursor, 11l, 0l).getMappedResult();
+            rows += page.getRows().size();
+            cursor = page.getNextCursor();
+            assertTrue(++pages <= 3);
+        } while (cursor != null);
+
+        assertEquals(5, rows);
+        assertNull(page.getNextCursor());
+
+        try {
+            testLongCompoundDAO.getRowPage(2, "not a cursor", 11l, 0l).getMappedResult();
+            fail("An invalid cursor was accepted");
+        } catch (ResultAccessException e) {
+            assertTrue(e.getMessage().contains("Invalid cursor"));
+        }
+    }
 }
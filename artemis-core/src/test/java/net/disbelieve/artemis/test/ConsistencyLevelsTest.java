@@ -0,0 +1,84 @@
+package com.comcast.artemis.test;
+
+import com.comcast.artemis.cassandra.ConsistencyLevels;
+import com.comcast.artemis.jersey.filter.CassandraConsistencyLevelFilter;
+import com.datastax.driver.core.ConsistencyLevel;
+import org.junit.After;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class ConsistencyLevelsTest {
+
+    @After
+    public void reset() {
+        ConsistencyLevels.clearRequestOverrides();
+        ConsistencyLevels.setReadConsistencyLevelOverride(null);
+        ConsistencyLevels.setReadConsistencyLevel(ConsistencyLevel.ONE);
+    }
+
+    @Test
+    public void _0_resolutionOrder() throws Exception {
+        ConsistencyLevels.setReadConsistencyLevel(ConsistencyLevel.ONE);
+        assertEquals(ConsistencyLevel.ONE, ConsistencyLevels.getRead());
+
+        ConsistencyLevels.setReadConsistencyLevelOverride(ConsistencyLevel.QUORUM);
+        assertEquals(ConsistencyLevel.QUORUM, ConsistencyLevels.getRead());
+
+        ConsistencyLevels.setRequestOverrides(ConsistencyLevel.LOCAL_ONE, null);
+        assertEquals(ConsistencyLevel.LOCAL_ONE, ConsistencyLevels.getRead());
+
+        ConsistencyLevels.clearRequestOverrides();
+        assertEquals(ConsistencyLevel.QUORUM, ConsistencyLevels.getRead());
+    }
+
+    @Test
+    public void _1_requestOverrideIsThreadConfined() throws Exception {
+        final AtomicReference<ConsistencyLevel> otherThread = new AtomicReference<ConsistencyLevel>();
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                otherThread.set(ConsistencyLevels.getRead());
+            }
+        });
+
+        ConsistencyLevels.setRequestOverrides(ConsistencyLevel.ALL, null);
+        thread.start();
+        thread.join();
+
+        assertEquals(ConsistencyLevel.ALL, ConsistencyLevels.getRead());
+        assertEquals(ConsistencyLevel.ONE, otherThread.get());
+    }
+
+    @Test
+    public void _2_filterClearsOverridesWithTheResponse() throws Exception {
+        CassandraConsistencyLevelFilter filter = new CassandraConsistencyLevelFilter();
+        ContainerRequestContext request = (ContainerRequestContext) Proxy.newProxyInstance(
+                ContainerRequestContext.class.getClassLoader(), new Class[]{ContainerRequestContext.class},
+                new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getHeaderString")) {
+                            return args[0].equals("CASSANDRA_READ_CONSISTENCY") ? "local_quorum" : "all";
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+
+        filter.filter(request);
+        assertEquals(ConsistencyLevel.LOCAL_QUORUM, ConsistencyLevels.getRead());
+        assertEquals(ConsistencyLevel.ALL, ConsistencyLevels.getWrite());
+
+        filter.filter(request, null);
+        assertNull(ConsistencyLevels.getRequestReadOverride());
+        assertNull(ConsistencyLevels.getRequestWriteOverride());
+    }
+}
@@ -0,0 +1,47 @@
+package com.comcast.artemis.test;
+
+import com.comcast.artemis.cassandra.data.ModelAccessor;
+import com.comcast.artemis.cassandra.data.ModelAccessors;
+import com.comcast.artemis.test.data.TestLongCompoundKey;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class ModelAccessorTest {
+
+    @Test
+    public void generatedMetadata() throws Exception {
+        ModelAccessor<TestLongCompoundKey> accessor = ModelAccessors.forClass(TestLongCompoundKey.class);
+
+        assertNotNull(accessor);
+        assertEquals("\"artemisKeySpace\"", accessor.getKeyspace());
+        assertEquals("\"testLongCompoundColumnFamily\"", accessor.getTable());
+        assertEquals(Arrays.asList("partitionKey1", "partitionKey2"), accessor.getPartitionKey());
+        assertEquals(Arrays.asList("clusterKey1", "clusterKey2"), accessor.getClusterKey());
+        assertEquals(Arrays.asList("partitionKey1", "partitionKey2", "clusterKey1", "clusterKey2"),
+                accessor.getPrimaryKey());
+    }
+
+    @Test
+    public void primaryKeyValues() throws Exception {
+        ModelAccessor<TestLongCompoundKey> accessor = ModelAccessors.forClass(TestLongCompoundKey.class);
+        TestLongCompoundKey model = new TestLongCompoundKey();
+
+        model.setPartitionKey1(1l);
+        model.setPartitionKey2(2l);
+        model.setClusterKey2(4l);
+        model.setData(5l);
+
+        assertArrayEquals(new Object[]{1l, 2l, null, 4l}, accessor.getPrimaryKeyValues(model));
+    }
+
+    @Test
+    public void noAccessor() throws Exception {
+        assertNull(ModelAccessors.forClass(String.class));
+    }
+}
@@ -0,0 +1,9 @@
+package com.comcast.artemis.test.dao;
+
+import com.comcast.artemis.cassandra.dao.CassandraDAO;
+import com.comcast.artemis.cassandra.dao.Repository;
+import com.comcast.artemis.test.data.ReflectedModels;
+
+@Repository
+public class TestEnumDAO extends CassandraDAO<ReflectedModels.TestEnumKey> {
+}
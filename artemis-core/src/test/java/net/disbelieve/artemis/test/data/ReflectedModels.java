@@ -0,0 +1,69 @@
+package com.comcast.artemis.test.data;
+
+import com.datastax.driver.mapping.EnumType;
+import com.datastax.driver.mapping.annotations.ClusteringColumn;
+import com.datastax.driver.mapping.annotations.Enumerated;
+import com.datastax.driver.mapping.annotations.PartitionKey;
+import com.datastax.driver.mapping.annotations.Table;
+
+/**
+ * Models nested in a class, for which no ModelAccessor is generated, so their DAOs map rows by reflection.
+ */
+public class ReflectedModels {
+    public enum Status {
+        ACTIVE,
+        SUSPENDED
+    }
+
+    @Table(keyspace = "artemisKeySpace", name = "testEnumColumnFamily", caseSensitiveKeyspace = true, caseSensitiveTable = true)
+    public static class TestEnumKey {
+        @PartitionKey
+        private String partitionKey;
+        @ClusteringColumn
+        private int clusterKey;
+        private Status status;
+        @Enumerated(EnumType.ORDINAL)
+        private Status ordinalStatus;
+        private Long data;
+
+        public String getPartitionKey() {
+            return partitionKey;
+        }
+
+        public void setPartitionKey(String partitionKey) {
+            this.partitionKey = partitionKey;
+        }
+
+        public int getClusterKey() {
+            return clusterKey;
+        }
+
+        public void setClusterKey(int clusterKey) {
+            this.clusterKey = clusterKey;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public Status getOrdinalStatus() {
+            return ordinalStatus;
+        }
+
+        public void setOrdinalStatus(Status ordinalStatus) {
+            this.ordinalStatus = ordinalStatus;
+        }
+
+        public Long getData() {
+            return data;
+        }
+
+        public void setData(Long data) {
+            this.data = data;
+        }
+    }
+}